@@ -0,0 +1,67 @@
+package com.drissman.benchmark;
+
+import com.drissman.api.dto.BookingDto;
+import com.drissman.service.mapper.BookingMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking enrichment over stubbed repositories: one booking, a school's list
+ * resolved one booking at a time, and the same list through the batched path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingMapperBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean warmCache;
+
+    @Param({ "500" })
+    public int bookings;
+
+    private StubDataset dataset;
+    private BookingMapper bookingMapper;
+
+    @Setup
+    public void setUp() {
+        dataset = new StubDataset(bookings, 0);
+        bookingMapper = new BookingMapper(dataset.referenceDataCache(warmCache));
+    }
+
+    @Benchmark
+    public BookingDto enrichWithDetails(QueriesPerCall queries) {
+        return queries.measure(dataset.counter(),
+                () -> bookingMapper.enrichWithDetails(dataset.bookings().get(0)).block());
+    }
+
+    @Benchmark
+    public List<BookingDto> enrichEach(QueriesPerCall queries) {
+        return queries.measure(dataset.counter(), () -> Flux.fromIterable(dataset.bookings())
+                .flatMapSequential(bookingMapper::enrichWithDetails)
+                .collectList()
+                .block());
+    }
+
+    @Benchmark
+    public List<BookingDto> enrichAll(QueriesPerCall queries) {
+        return queries.measure(dataset.counter(),
+                () -> bookingMapper.enrichAll(Flux.fromIterable(dataset.bookings())).collectList().block());
+    }
+}
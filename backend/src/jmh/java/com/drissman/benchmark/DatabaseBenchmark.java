@@ -0,0 +1,89 @@
+package com.drissman.benchmark;
+
+import com.drissman.api.dto.PartnerStatsDto;
+import com.drissman.api.dto.SchoolDto;
+import com.drissman.api.dto.SessionDto;
+import com.drissman.service.PartnerService;
+import com.drissman.service.SchoolService;
+import com.drissman.service.SchoolStatsService;
+import com.drissman.service.query.PartnerStatsQuery;
+import com.drissman.service.query.SchoolCatalogQuery;
+import com.drissman.service.query.SessionPlanningQuery;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service read paths against an embedded Postgres seeded with
+ * {@code schools} schools, round-trips included. Collaborators not used by
+ * the measured methods are left null.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatabaseBenchmark {
+
+    @Param({ "200" })
+    public int schools;
+
+    private EmbeddedDatabase database;
+    private SchoolService schoolService;
+    private PartnerService partnerService;
+    private SessionPlanningQuery sessionPlanningQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = EmbeddedDatabase.start(schools, 5_000, 50, 25);
+        new SchoolStatsService(database.databaseClient(), database.transactionalOperator()).rebuild().block();
+
+        schoolService = new SchoolService(null, null,
+                new SchoolCatalogQuery(database.databaseClient(), JsonMapper.builder().findAndAddModules().build()),
+                null);
+        partnerService = new PartnerService(null, null, null, null,
+                new PartnerStatsQuery(database.databaseClient()), null);
+        sessionPlanningQuery = new SessionPlanningQuery(database.databaseClient());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public List<SchoolDto> schoolFindAll(QueriesPerCall queries) {
+        return queries.measure(database.counter(), () -> schoolService.findAll(null).collectList().block());
+    }
+
+    @Benchmark
+    public List<SchoolDto> schoolFindAllByCity(QueriesPerCall queries) {
+        return queries.measure(database.counter(), () -> schoolService.findAll("Douala").collectList().block());
+    }
+
+    @Benchmark
+    public PartnerStatsDto partnerStats(QueriesPerCall queries) {
+        return queries.measure(database.counter(), () -> partnerService.getStats(database.benchSchoolId()).block());
+    }
+
+    @Benchmark
+    public List<SessionDto> sessionPlanning(QueriesPerCall queries) {
+        return queries.measure(database.counter(),
+                () -> sessionPlanningQuery.findBySchool(database.benchSchoolId(), null, null).collectList().block());
+    }
+}
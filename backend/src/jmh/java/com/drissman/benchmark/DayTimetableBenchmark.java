@@ -0,0 +1,95 @@
+package com.drissman.benchmark;
+
+import com.drissman.domain.entity.Session;
+import com.drissman.service.planning.DayTimetable;
+import com.drissman.service.planning.SessionIntervalIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overlap check of a 30 minute slot against a day of {@code sessions}
+ * sessions: the interval index used by SessionIntervalIndex versus a linear
+ * scan of the day's sessions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DayTimetableBenchmark {
+
+    private static final int PROBES = 1024;
+
+    @Param({ "4", "32", "256" })
+    public int sessions;
+
+    private List<Session> day;
+    private DayTimetable timetable;
+    private LocalTime[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int spacing = 24 * 60 / sessions;
+        day = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            LocalTime start = LocalTime.MIN.plusMinutes((long) i * spacing);
+            day.add(Session.builder()
+                    .id(new UUID(7, i))
+                    .date(LocalDate.now())
+                    .startTime(start)
+                    .endTime(start.plusMinutes(Math.max(1, spacing / 2)))
+                    .status(Session.SessionStatus.SCHEDULED)
+                    .build());
+        }
+        timetable = DayTimetable.of(day);
+
+        Random random = new Random(42);
+        probes = new LocalTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = LocalTime.MIN.plusMinutes(random.nextInt(23 * 60));
+        }
+    }
+
+    @Benchmark
+    public UUID intervalIndex() {
+        LocalTime start = nextProbe();
+        return timetable.findOverlap(start, start.plusMinutes(30));
+    }
+
+    @Benchmark
+    public UUID linearScan() {
+        LocalTime start = nextProbe();
+        LocalTime end = start.plusMinutes(30);
+        for (Session session : day) {
+            if (SessionIntervalIndex.occupiesSlot(session)
+                    && session.getStartTime().isBefore(end) && start.isBefore(session.getEndTime())) {
+                return session.getId();
+            }
+        }
+        return null;
+    }
+
+    private LocalTime nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return probes[next];
+    }
+}
@@ -0,0 +1,202 @@
+package com.drissman.benchmark;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Throw-away Postgres migrated with the application's Liquibase changelog and
+ * seeded with a synthetic data set, for the benchmarks that include the
+ * database round-trips.
+ *
+ * Every statement created through {@link #databaseClient()} is counted by
+ * {@link #counter()}.
+ */
+public final class EmbeddedDatabase implements AutoCloseable {
+
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.yaml";
+
+    // %1$d schools with 4 offers and 5 monitors each, %2$d users,
+    // %3$d bookings and %4$d enrollments (one session each) per offer
+    private static final String SEED_SQL = """
+            INSERT INTO schools (name, address, city, rating)
+            SELECT 'Bench School ' || lpad(g::text, 4, '0'), g || ' rue du Banc',
+                   (ARRAY['Douala', 'Yaoundé', 'Bafoussam', 'Garoua'])[1 + g %% 4], 4.0
+            FROM generate_series(1, %1$d) g;
+
+            INSERT INTO offers (school_id, name, price, hours, permit_type)
+            SELECT s.id, 'Bench Permis ' || g, 150000 + g * 25000, 15 + g * 5, 'B'
+            FROM schools s CROSS JOIN generate_series(1, 4) g
+            WHERE s.name LIKE 'Bench School %%';
+
+            INSERT INTO monitors (school_id, first_name, last_name, license_number)
+            SELECT s.id, 'Moniteur', g::text, 'BENCH-' || s.id || '-' || g
+            FROM schools s CROSS JOIN generate_series(1, 5) g
+            WHERE s.name LIKE 'Bench School %%';
+
+            INSERT INTO users (email, password, first_name, last_name)
+            SELECT 'bench.user' || g || '@drissman.test', 'x', 'Eleve', g::text
+            FROM generate_series(1, %2$d) g;
+
+            INSERT INTO bookings (user_id, school_id, offer_id, booking_date, booking_time, status, created_at)
+            SELECT u.ids[1 + ((g * 7919 + o.n) %% array_length(u.ids, 1))::int], o.school_id, o.id,
+                   CURRENT_DATE - 30 + g %% 60, lpad((8 + g %% 10)::text, 2, '0') || ':00',
+                   (ARRAY['PENDING', 'CONFIRMED', 'CANCELLED', 'COMPLETED'])[1 + g %% 4],
+                   now() - make_interval(hours => g)
+            FROM (SELECT id, school_id, row_number() OVER (ORDER BY id) AS n
+                  FROM offers WHERE name LIKE 'Bench Permis %%') o
+            CROSS JOIN (SELECT array_agg(id) AS ids FROM users WHERE email LIKE 'bench.%%') u
+            CROSS JOIN generate_series(1, %3$d) g;
+
+            INSERT INTO invoices (booking_id, user_id, amount, status, created_at, paid_at)
+            SELECT b.id, b.user_id, o.price, 'PAID', b.created_at, b.created_at
+            FROM bookings b JOIN offers o ON o.id = b.offer_id
+            WHERE o.name LIKE 'Bench Permis %%' AND b.status IN ('CONFIRMED', 'COMPLETED');
+
+            INSERT INTO enrollments (user_id, school_id, offer_id, hours_purchased)
+            SELECT u.ids[1 + ((g * 104729 + o.n) %% array_length(u.ids, 1))::int], o.school_id, o.id, o.hours
+            FROM (SELECT id, school_id, hours, row_number() OVER (ORDER BY id) AS n
+                  FROM offers WHERE name LIKE 'Bench Permis %%') o
+            CROSS JOIN (SELECT array_agg(id) AS ids FROM users WHERE email LIKE 'bench.%%') u
+            CROSS JOIN generate_series(1, %4$d) g;
+
+            -- monitor k %% 5, hour (k / 5) %% 10, day k / 50: no monitor is booked twice at once
+            INSERT INTO sessions (enrollment_id, monitor_id, date, start_time, end_time, status)
+            SELECT e.id, m.ids[1 + (e.k %% 5)::int], CURRENT_DATE - 30 + (e.k / 50)::int,
+                   make_time(8 + (e.k / 5)::int %% 10, 0, 0), make_time(9 + (e.k / 5)::int %% 10, 0, 0),
+                   (ARRAY['SCHEDULED', 'COMPLETED'])[1 + e.k %% 2]
+            FROM (SELECT id, school_id, row_number() OVER (PARTITION BY school_id ORDER BY id) - 1 AS k
+                  FROM enrollments) e
+            JOIN (SELECT school_id, array_agg(id ORDER BY id) AS ids FROM monitors
+                  WHERE license_number LIKE 'BENCH-%%' GROUP BY school_id) m ON m.school_id = e.school_id;
+
+            ANALYZE;
+            """;
+
+    private final EmbeddedPostgres postgres;
+    private final ConnectionPool pool;
+    private final QueryCounter counter = new QueryCounter();
+    private final DatabaseClient databaseClient;
+    private final UUID benchSchoolId;
+
+    private EmbeddedDatabase(EmbeddedPostgres postgres, UUID benchSchoolId) {
+        this.postgres = postgres;
+        this.benchSchoolId = benchSchoolId;
+        ConnectionFactory factory = new PostgresqlConnectionFactory(PostgresqlConnectionConfiguration.builder()
+                .host("localhost")
+                .port(postgres.getPort())
+                .database("postgres")
+                .username("postgres")
+                .build());
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(new CountingConnectionFactory(factory))
+                .initialSize(4)
+                .maxSize(8)
+                .build());
+        this.databaseClient = DatabaseClient.create(pool);
+    }
+
+    /**
+     * Starts Postgres, applies the changelog and seeds the bench data set. The
+     * school_stats rollup is rebuilt by the caller if needed.
+     */
+    public static EmbeddedDatabase start(int schools, int users, int bookingsPerOffer, int enrollmentsPerOffer)
+            throws Exception {
+        EmbeddedPostgres postgres = EmbeddedPostgres.start();
+        try (java.sql.Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database).update(new Contexts());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(SEED_SQL.formatted(schools, users, bookingsPerOffer, enrollmentsPerOffer));
+                try (ResultSet rows = statement.executeQuery(
+                        "SELECT id FROM schools WHERE name LIKE 'Bench School %' ORDER BY name LIMIT 1")) {
+                    rows.next();
+                    return new EmbeddedDatabase(postgres, rows.getObject(1, UUID.class));
+                }
+            }
+        } catch (Exception e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    public DatabaseClient databaseClient() {
+        return databaseClient;
+    }
+
+    public TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(pool));
+    }
+
+    public QueryCounter counter() {
+        return counter;
+    }
+
+    /**
+     * First seeded school; all seeded schools have the same shape.
+     */
+    public UUID benchSchoolId() {
+        return benchSchoolId;
+    }
+
+    @Override
+    public void close() throws Exception {
+        pool.dispose();
+        postgres.close();
+    }
+
+    private final class CountingConnectionFactory implements ConnectionFactory {
+
+        private final ConnectionFactory delegate;
+
+        private CountingConnectionFactory(ConnectionFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.from(delegate.create()).map(this::counting);
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        private Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (self, method, args) -> {
+                        if (method.getName().equals("createStatement")) {
+                            counter.increment();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.drissman.benchmark;
+
+import com.drissman.security.JwtAuthenticationFilter;
+import com.drissman.security.JwtTokenProvider;
+import com.drissman.security.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of bearer token authentication for {@code users} distinct
+ * tokens: the filter (verification and revocation check) with the claims
+ * cache disabled (0) or enabled, and the former verification that built a new
+ * parser for every token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-at-least-256-bits-long-for-hs256";
+
+    private static final WebFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({ "0", "10000" })
+    public long claimsCacheSize;
+
+    @Param({ "1", "1000" })
+    public int users;
+
+    private SecretKey secretKey;
+    private JwtAuthenticationFilter filter;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 86_400_000, claimsCacheSize);
+        // Nothing is revoked: the Bloom filter answers every check and Redis is never reached
+        TokenRevocationService revocations = new TokenRevocationService(
+                new ReactiveStringRedisTemplate(new LettuceConnectionFactory()), new SimpleMeterRegistry(),
+                new MockEnvironment());
+        filter = new JwtAuthenticationFilter(tokenProvider, revocations);
+        tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = tokenProvider.generateToken(UUID.randomUUID(), "STUDENT", null);
+        }
+    }
+
+    @Benchmark
+    public Void authenticate() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/bookings/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + nextToken()));
+        return filter.filter(exchange, CHAIN).block();
+    }
+
+    @Benchmark
+    public Claims parserPerCall() {
+        return Jwts.parser()
+                .verifyWith(secretKey)
+                .build()
+                .parseSignedClaims(nextToken())
+                .getPayload();
+    }
+
+    private String nextToken() {
+        String token = tokens[next];
+        next = (next + 1) % tokens.length;
+        return token;
+    }
+}
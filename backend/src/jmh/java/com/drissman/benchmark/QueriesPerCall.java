@@ -0,0 +1,40 @@
+package com.drissman.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.function.Supplier;
+
+/**
+ * Secondary JMH result reporting the average number of queries issued by one
+ * benchmark invocation. Benchmarks wrap each call in {@link #measure}; the
+ * figure is exact with the default single benchmark thread.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class QueriesPerCall {
+
+    private long calls;
+    private long queries;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        calls = 0;
+        queries = 0;
+    }
+
+    public <T> T measure(QueryCounter counter, Supplier<T> call) {
+        long before = counter.get();
+        T result = call.get();
+        queries += counter.get() - before;
+        calls++;
+        return result;
+    }
+
+    public double queriesPerCall() {
+        return calls == 0 ? 0 : (double) queries / calls;
+    }
+}
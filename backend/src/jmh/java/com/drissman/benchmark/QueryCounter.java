@@ -0,0 +1,19 @@
+package com.drissman.benchmark;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of statements sent to the database (or to a stubbed repository).
+ */
+public class QueryCounter {
+
+    private final AtomicLong queries = new AtomicLong();
+
+    public void increment() {
+        queries.incrementAndGet();
+    }
+
+    public long get() {
+        return queries.get();
+    }
+}
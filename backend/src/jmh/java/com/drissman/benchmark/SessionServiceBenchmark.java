@@ -0,0 +1,56 @@
+package com.drissman.benchmark;
+
+import com.drissman.api.dto.SessionDto;
+import com.drissman.service.SessionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A monitor's sessions enriched one by one (SessionService.enrichSession) over
+ * stubbed repositories. Collaborators not used by this path are left null.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionServiceBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean warmCache;
+
+    @Param({ "50" })
+    public int sessions;
+
+    private StubDataset dataset;
+    private SessionService sessionService;
+    private UUID monitorId;
+
+    @Setup
+    public void setUp() {
+        dataset = new StubDataset(0, sessions);
+        sessionService = new SessionService(dataset.sessionRepository(), dataset.enrollmentRepository(),
+                dataset.referenceDataCache(warmCache), null, null, null);
+        monitorId = dataset.firstMonitor().getId();
+    }
+
+    @Benchmark
+    public List<SessionDto> findByMonitorId(QueriesPerCall queries) {
+        return queries.measure(dataset.counter(),
+                () -> sessionService.findByMonitorId(monitorId).collectList().block());
+    }
+}
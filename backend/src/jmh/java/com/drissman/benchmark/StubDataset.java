@@ -0,0 +1,229 @@
+package com.drissman.benchmark;
+
+import com.drissman.cache.CacheRegion;
+import com.drissman.cache.CacheStats;
+import com.drissman.cache.NearCache;
+import com.drissman.cache.RedisEntityCache;
+import com.drissman.cache.ReferenceDataCache;
+import com.drissman.cache.UserSummary;
+import com.drissman.domain.entity.Booking;
+import com.drissman.domain.entity.Enrollment;
+import com.drissman.domain.entity.Monitor;
+import com.drissman.domain.entity.Offer;
+import com.drissman.domain.entity.School;
+import com.drissman.domain.entity.Session;
+import com.drissman.domain.entity.User;
+import com.drissman.domain.repository.BookingRepository;
+import com.drissman.domain.repository.EnrollmentRepository;
+import com.drissman.domain.repository.MonitorRepository;
+import com.drissman.domain.repository.OfferRepository;
+import com.drissman.domain.repository.SchoolRepository;
+import com.drissman.domain.repository.SessionRepository;
+import com.drissman.domain.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Deterministic in-memory data set behind stubbed repositories, for the
+ * benchmarks that measure the service layer without any I/O.
+ *
+ * The first school owns {@code bookings} bookings spread over its offers and
+ * the whole user base; the first monitor teaches {@code sessions} sessions.
+ */
+public class StubDataset {
+
+    public static final int SCHOOLS = 20;
+    public static final int OFFERS_PER_SCHOOL = 4;
+    public static final int MONITORS_PER_SCHOOL = 5;
+    public static final int USERS = 1_000;
+
+    private final QueryCounter counter = new QueryCounter();
+    private final Map<UUID, School> schools = new LinkedHashMap<>();
+    private final Map<UUID, Offer> offers = new LinkedHashMap<>();
+    private final Map<UUID, User> users = new LinkedHashMap<>();
+    private final Map<UUID, Monitor> monitors = new LinkedHashMap<>();
+    private final Map<UUID, Enrollment> enrollments = new LinkedHashMap<>();
+    private final List<Booking> bookings = new ArrayList<>();
+    private final List<Session> sessions = new ArrayList<>();
+
+    public StubDataset(int bookingCount, int sessionCount) {
+        Random random = new Random(42);
+        for (int s = 0; s < SCHOOLS; s++) {
+            School school = School.builder()
+                    .id(new UUID(1, s))
+                    .name("Bench School " + s)
+                    .address(s + " rue du Banc")
+                    .city("Douala")
+                    .rating(BigDecimal.valueOf(4))
+                    .createdAt(LocalDateTime.now())
+                    .build();
+            schools.put(school.getId(), school);
+            for (int o = 0; o < OFFERS_PER_SCHOOL; o++) {
+                Offer offer = Offer.builder()
+                        .id(new UUID(2, s * OFFERS_PER_SCHOOL + o))
+                        .schoolId(school.getId())
+                        .name("Permis B " + o)
+                        .price(150_000 + o * 25_000)
+                        .hours(20 + o * 5)
+                        .build();
+                offers.put(offer.getId(), offer);
+            }
+            for (int m = 0; m < MONITORS_PER_SCHOOL; m++) {
+                Monitor monitor = Monitor.builder()
+                        .id(new UUID(3, s * MONITORS_PER_SCHOOL + m))
+                        .schoolId(school.getId())
+                        .firstName("Moniteur")
+                        .lastName(String.valueOf(m))
+                        .licenseNumber("LIC-" + s + "-" + m)
+                        .status(Monitor.MonitorStatus.ACTIVE)
+                        .build();
+                monitors.put(monitor.getId(), monitor);
+            }
+        }
+        for (int u = 0; u < USERS; u++) {
+            User user = User.builder()
+                    .id(new UUID(4, u))
+                    .email("bench.user" + u + "@drissman.test")
+                    .firstName("Eleve")
+                    .lastName(String.valueOf(u))
+                    .role(User.Role.STUDENT)
+                    .build();
+            users.put(user.getId(), user);
+        }
+
+        School school = firstSchool();
+        List<Offer> schoolOffers = offers.values().stream()
+                .filter(offer -> offer.getSchoolId().equals(school.getId()))
+                .toList();
+        List<UUID> userIds = new ArrayList<>(users.keySet());
+        LocalDate today = LocalDate.now();
+        for (int b = 0; b < bookingCount; b++) {
+            bookings.add(Booking.builder()
+                    .id(new UUID(5, b))
+                    .schoolId(school.getId())
+                    .offerId(schoolOffers.get(random.nextInt(schoolOffers.size())).getId())
+                    .userId(userIds.get(random.nextInt(userIds.size())))
+                    .bookingDate(today.plusDays(random.nextInt(30)))
+                    .bookingTime("09:00")
+                    .status(Booking.BookingStatus.values()[random.nextInt(Booking.BookingStatus.values().length)])
+                    .createdAt(LocalDateTime.now().minusHours(b))
+                    .build());
+        }
+
+        UUID monitorId = firstMonitor().getId();
+        for (int i = 0; i < sessionCount; i++) {
+            Offer offer = schoolOffers.get(random.nextInt(schoolOffers.size()));
+            Enrollment enrollment = Enrollment.builder()
+                    .id(new UUID(6, i))
+                    .userId(userIds.get(random.nextInt(userIds.size())))
+                    .schoolId(school.getId())
+                    .offerId(offer.getId())
+                    .status(Enrollment.EnrollmentStatus.ACTIVE)
+                    .hoursPurchased(offer.getHours())
+                    .hoursConsumed(0)
+                    .build();
+            enrollments.put(enrollment.getId(), enrollment);
+            LocalTime start = LocalTime.of(8 + i % 10, 0);
+            sessions.add(Session.builder()
+                    .id(new UUID(7, i))
+                    .enrollmentId(enrollment.getId())
+                    .monitorId(monitorId)
+                    .date(today.plusDays(i / 10))
+                    .startTime(start)
+                    .endTime(start.plusHours(1))
+                    .status(Session.SessionStatus.SCHEDULED)
+                    .build());
+        }
+    }
+
+    public QueryCounter counter() {
+        return counter;
+    }
+
+    public School firstSchool() {
+        return schools.values().iterator().next();
+    }
+
+    public Monitor firstMonitor() {
+        return monitors.values().iterator().next();
+    }
+
+    public List<Booking> bookings() {
+        return bookings;
+    }
+
+    public List<Session> sessions() {
+        return sessions;
+    }
+
+    public BookingRepository bookingRepository() {
+        return StubRepository.of(BookingRepository.class, counter)
+                .answer("findBySchoolId", args -> Flux.fromIterable(bookings)
+                        .filter(booking -> booking.getSchoolId().equals(args[0])))
+                .build();
+    }
+
+    public EnrollmentRepository enrollmentRepository() {
+        return StubRepository.of(EnrollmentRepository.class, counter)
+                .answer("findById", args -> Mono.justOrEmpty(enrollments.get((UUID) args[0])))
+                .build();
+    }
+
+    public SessionRepository sessionRepository() {
+        return StubRepository.of(SessionRepository.class, counter)
+                .answer("findByMonitorId", args -> Flux.fromIterable(sessions)
+                        .filter(session -> args[0].equals(session.getMonitorId())))
+                .build();
+    }
+
+    /**
+     * Reference cache over the stubbed repositories. With {@code warm} every
+     * entity is preloaded in the near tier, so lookups are answered in-process
+     * (Redis is never reached); otherwise the cache is disabled and every
+     * lookup is a repository query.
+     */
+    public ReferenceDataCache referenceDataCache(boolean warm) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("cache.enabled", String.valueOf(warm));
+        NearCache nearCache = new NearCache(null, environment);
+        RedisEntityCache cache = new RedisEntityCache(null, nearCache, new ObjectMapper(), new CacheStats(),
+                environment);
+        if (warm) {
+            schools.forEach((id, school) -> nearCache.put(CacheRegion.SCHOOLS, id, school));
+            offers.forEach((id, offer) -> nearCache.put(CacheRegion.OFFERS, id, offer));
+            users.forEach((id, user) -> nearCache.put(CacheRegion.USERS, id, UserSummary.from(user)));
+            monitors.forEach((id, monitor) -> nearCache.put(CacheRegion.MONITORS, id, monitor));
+        }
+        return new ReferenceDataCache(cache,
+                byId(SchoolRepository.class, schools),
+                byId(OfferRepository.class, offers),
+                byId(UserRepository.class, users),
+                byId(MonitorRepository.class, monitors));
+    }
+
+    private <R, T> R byId(Class<R> type, Map<UUID, T> entities) {
+        Function<Object[], Publisher<?>> findByIds = args -> Flux
+                .fromStream(Arrays.stream((UUID[]) args[0]).map(entities::get).filter(Objects::nonNull));
+        return StubRepository.of(type, counter)
+                .answer("findById", args -> Mono.justOrEmpty(entities.get((UUID) args[0])))
+                .answer("findByIds", findByIds)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.drissman.benchmark;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds an in-memory implementation of a reactive repository interface.
+ *
+ * Only the methods given an answer are implemented, any other call fails.
+ * Like a real query, an answer is counted when its publisher is subscribed,
+ * not when the repository method is called.
+ */
+public final class StubRepository<R> {
+
+    private final Class<R> type;
+    private final QueryCounter counter;
+    private final Map<String, Function<Object[], Publisher<?>>> answers = new HashMap<>();
+
+    private StubRepository(Class<R> type, QueryCounter counter) {
+        this.type = type;
+        this.counter = counter;
+    }
+
+    public static <R> StubRepository<R> of(Class<R> type, QueryCounter counter) {
+        return new StubRepository<>(type, counter);
+    }
+
+    public StubRepository<R> answer(String method, Function<Object[], Publisher<?>> answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    public R build() {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (self, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> self == args[0];
+                            case "hashCode" -> System.identityHashCode(self);
+                            default -> type.getSimpleName() + " stub";
+                        };
+                    }
+                    Function<Object[], Publisher<?>> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }
+                    if (Mono.class.isAssignableFrom(method.getReturnType())) {
+                        return Mono.defer(() -> {
+                            counter.increment();
+                            return Mono.from(answer.apply(args));
+                        });
+                    }
+                    return Flux.defer(() -> {
+                        counter.increment();
+                        return answer.apply(args);
+                    });
+                });
+        return type.cast(proxy);
+    }
+}
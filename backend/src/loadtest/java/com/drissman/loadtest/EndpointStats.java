@@ -0,0 +1,61 @@
+package com.drissman.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latencies and outcomes recorded for one endpoint of the mix. Latencies are
+ * kept in full (microseconds) so that percentiles are exact.
+ */
+public class EndpointStats {
+
+    private final String name;
+    private long[] latencies = new long[4096];
+    private int count;
+    private int errors;
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos / 1_000;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    /**
+     * Summary over a measurement window of {@code elapsed}; latencies in milliseconds.
+     */
+    public synchronized Map<String, Object> summary(Duration elapsed) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("throughput", count * 1_000.0 / Math.max(1, elapsed.toMillis()));
+        summary.put("p50", percentile(sorted, 0.50));
+        summary.put("p99", percentile(sorted, 0.99));
+        summary.put("max", count == 0 ? 0.0 : sorted[count - 1] / 1_000.0);
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000.0;
+    }
+}
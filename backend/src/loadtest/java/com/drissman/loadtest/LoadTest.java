@@ -0,0 +1,139 @@
+package com.drissman.loadtest;
+
+import com.drissman.DrissmanApplication;
+import com.drissman.security.JwtTokenProvider;
+import com.drissman.service.SchoolStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Closed-model load test of the REST API.
+ *
+ * Starts an embedded Postgres, boots the application against it (Liquibase
+ * creates the schema), seeds {@link LoadTestData}, then lets
+ * {@code loadtest.concurrency} virtual users run the {@link Scenario} mix back
+ * to back: first for {@code loadtest.warmup} (not recorded), then for
+ * {@code loadtest.duration}. Latency percentiles and throughput per endpoint
+ * are printed and written as JSON to {@code loadtest.result}.
+ *
+ * Redis is not started: the reference cache and token revocation run
+ * disabled unless {@code loadtest.cache=true} and a Redis is reachable on the
+ * usual settings.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int schools = Integer.getInteger("loadtest.schools", 100);
+        int offers = Integer.getInteger("loadtest.offers", 4);
+        int bookings = Integer.getInteger("loadtest.bookings", 400);
+        int students = Integer.getInteger("loadtest.students", 5_000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration warmup = duration("loadtest.warmup", "30s");
+        Duration duration = duration("loadtest.duration", "2m");
+        String mix = System.getProperty("loadtest.mix", Scenario.DEFAULT_MIX);
+        String result = System.getProperty("loadtest.result", "target/loadtest-result.json");
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+            ConfigurableApplicationContext context = SpringApplication.run(DrissmanApplication.class,
+                    "--server.port=0",
+                    "--management.server.port=-1",
+                    "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                    "--spring.r2dbc.username=postgres",
+                    "--spring.r2dbc.password=postgres",
+                    "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=postgres",
+                    "--cache.enabled=" + System.getProperty("loadtest.cache", "false"),
+                    "--auth.revocation.enabled=" + System.getProperty("loadtest.cache", "false"),
+                    "--stats.reconcile.cron=-",
+                    // Tokens are minted once per account and reused for the whole run
+                    "--jwt.expiration=86400000",
+                    "--logging.level.root=WARN");
+            try {
+                System.out.printf("Seeding %d schools, %d offers and %d bookings per school, %d students%n",
+                        schools, offers, bookings, students);
+                LoadTestData data = LoadTestData.seed(postgres.getPostgresDatabase(), schools, offers, bookings,
+                        students);
+                context.getBean(SchoolStatsService.class).rebuild().block();
+
+                int port = ((ReactiveWebServerApplicationContext) context).getWebServer().getPort();
+                ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                        .maxConnections(concurrency)
+                        .pendingAcquireMaxCount(-1)
+                        .build();
+                HttpClient client = HttpClient.create(connections).baseUrl("http://localhost:" + port);
+
+                JwtTokenProvider jwt = context.getBean(JwtTokenProvider.class);
+                Map<UUID, String> tokens = new ConcurrentHashMap<>();
+                Scenario scenario = new Scenario(client, data,
+                        account -> tokens.computeIfAbsent(account.id(),
+                                id -> jwt.generateToken(id, account.role(), account.schoolId())),
+                        mix);
+
+                System.out.printf("Warming up for %s with %d virtual users%n", warmup, concurrency);
+                run(scenario, concurrency, warmup);
+                scenario.reset();
+                System.out.printf("Measuring for %s%n", duration);
+                long start = System.nanoTime();
+                run(scenario, concurrency, duration);
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                report(scenario.reset(), elapsed, concurrency, mix, new File(result));
+                connections.dispose();
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static void run(Scenario scenario, int concurrency, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, concurrency)
+                .flatMap(user -> Flux.defer(scenario::next).repeat(() -> System.nanoTime() < deadline),
+                        concurrency)
+                .blockLast();
+    }
+
+    private static void report(Map<String, EndpointStats> stats, Duration elapsed, int concurrency, String mix,
+            File result) throws Exception {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        System.out.printf("%n%-10s %10s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (EndpointStats endpoint : stats.values()) {
+            Map<String, Object> summary = endpoint.summary(elapsed);
+            endpoints.add(summary);
+            System.out.printf("%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                    summary.get("endpoint"), summary.get("requests"), summary.get("errors"),
+                    summary.get("throughput"), summary.get("p50"), summary.get("p99"), summary.get("max"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", elapsed.toMillis() / 1_000.0);
+        report.put("mix", mix);
+        report.put("endpoints", endpoints);
+        result.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(result, report);
+        System.out.printf("%nResults written to %s%n", result.getAbsolutePath());
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        String value = System.getProperty(property, defaultValue).trim().toUpperCase();
+        return Duration.parse(value.startsWith("P") ? value : "PT" + value);
+    }
+}
@@ -0,0 +1,169 @@
+package com.drissman.loadtest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Synthetic data set seeded into the Liquibase schema once the application has
+ * migrated it, and the identifiers the scenario needs to build requests.
+ *
+ * Every school gets an administrator, {@code offersPerSchool} offers,
+ * availabilities from Monday to Saturday 08:00-18:00, five monitors and
+ * {@code bookingsPerSchool} bookings spread over the previous and next 30
+ * days; one enrollment with one session is created for every fourth booking.
+ */
+public class LoadTestData {
+
+    private static final String SEED_SQL = """
+            INSERT INTO schools (name, address, city, rating)
+            SELECT 'Load School ' || lpad(g::text, 5, '0'), g || ' avenue de la Charge',
+                   (ARRAY['Douala', 'Yaoundé', 'Bafoussam', 'Garoua'])[1 + g %% 4], 3 + (g %% 20) / 10.0
+            FROM generate_series(1, %1$d) g;
+
+            INSERT INTO offers (school_id, name, price, hours, permit_type)
+            SELECT s.id, 'Load Permis ' || g, 100000 + g * 25000, 10 + g * 5, 'B'
+            FROM schools s CROSS JOIN generate_series(1, %2$d) g
+            WHERE s.name LIKE 'Load School %%';
+
+            INSERT INTO availabilities (school_id, day_of_week, start_time, end_time, max_bookings)
+            SELECT s.id, d, '08:00', '18:00', 20
+            FROM schools s CROSS JOIN generate_series(1, 6) d
+            WHERE s.name LIKE 'Load School %%';
+
+            INSERT INTO monitors (school_id, first_name, last_name, license_number)
+            SELECT s.id, 'Moniteur', g::text, 'LOAD-' || s.id || '-' || g
+            FROM schools s CROSS JOIN generate_series(1, 5) g
+            WHERE s.name LIKE 'Load School %%';
+
+            INSERT INTO users (email, password, first_name, last_name, role, school_id)
+            SELECT 'admin.' || s.id || '@loadtest.drissman', 'x', 'Admin', s.name, 'SCHOOL_ADMIN', s.id
+            FROM schools s
+            WHERE s.name LIKE 'Load School %%';
+
+            INSERT INTO users (email, password, first_name, last_name)
+            SELECT 'student' || g || '@loadtest.drissman', 'x', 'Eleve', g::text
+            FROM generate_series(1, %4$d) g;
+
+            INSERT INTO bookings (user_id, school_id, offer_id, booking_date, booking_time, status, created_at)
+            SELECT u.ids[1 + ((g * 7919 + o.n) %% array_length(u.ids, 1))::int], o.school_id, o.id,
+                   CURRENT_DATE - 30 + g %% 61, lpad((8 + g %% 10)::text, 2, '0') || ':00',
+                   (ARRAY['PENDING', 'CONFIRMED', 'CANCELLED', 'COMPLETED'])[1 + g %% 4],
+                   now() - make_interval(mins => g)
+            FROM (SELECT id, school_id, row_number() OVER (ORDER BY id) AS n
+                  FROM offers WHERE name LIKE 'Load Permis %%') o
+            CROSS JOIN (SELECT array_agg(id) AS ids FROM users WHERE email LIKE 'student%%@loadtest.drissman') u
+            CROSS JOIN generate_series(1, GREATEST(1, %3$d / %2$d)) g;
+
+            INSERT INTO invoices (booking_id, user_id, amount, status, created_at, paid_at)
+            SELECT b.id, b.user_id, o.price, 'PAID', b.created_at, b.created_at
+            FROM bookings b JOIN offers o ON o.id = b.offer_id
+            WHERE o.name LIKE 'Load Permis %%' AND b.status IN ('CONFIRMED', 'COMPLETED');
+
+            INSERT INTO enrollments (user_id, school_id, offer_id, hours_purchased)
+            SELECT b.user_id, b.school_id, b.offer_id, o.hours
+            FROM bookings b JOIN offers o ON o.id = b.offer_id
+            WHERE o.name LIKE 'Load Permis %%' AND b.status = 'CONFIRMED';
+
+            -- monitor k %% 5, hour (k / 5) %% 10, day k / 50: no monitor is booked twice at once
+            INSERT INTO sessions (enrollment_id, monitor_id, date, start_time, end_time, status)
+            SELECT e.id, m.ids[1 + (e.k %% 5)::int], CURRENT_DATE - 15 + (e.k / 50)::int,
+                   make_time(8 + (e.k / 5)::int %% 10, 0, 0), make_time(9 + (e.k / 5)::int %% 10, 0, 0),
+                   (ARRAY['SCHEDULED', 'COMPLETED'])[1 + e.k %% 2]
+            FROM (SELECT id, school_id, row_number() OVER (PARTITION BY school_id ORDER BY id) - 1 AS k
+                  FROM enrollments) e
+            JOIN (SELECT school_id, array_agg(id ORDER BY id) AS ids FROM monitors
+                  WHERE license_number LIKE 'LOAD-%%' GROUP BY school_id) m ON m.school_id = e.school_id;
+
+            ANALYZE;
+            """;
+
+    private final List<UUID> schoolIds = new ArrayList<>();
+    private final Map<UUID, List<UUID>> offersBySchool = new HashMap<>();
+    private final Map<UUID, Account> adminsBySchool = new HashMap<>();
+    private final List<Account> students = new ArrayList<>();
+    private final List<PendingBooking> pendingBookings = new ArrayList<>();
+
+    private LoadTestData() {
+    }
+
+    public static LoadTestData seed(DataSource dataSource, int schools, int offersPerSchool, int bookingsPerSchool,
+            int students) throws SQLException {
+        LoadTestData data = new LoadTestData();
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(SEED_SQL.formatted(schools, offersPerSchool, bookingsPerSchool, students));
+
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT id FROM schools WHERE name LIKE 'Load School %' ORDER BY name")) {
+                while (rows.next()) {
+                    data.schoolIds.add(rows.getObject(1, UUID.class));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT school_id, id FROM offers WHERE name LIKE 'Load Permis %'")) {
+                while (rows.next()) {
+                    data.offersBySchool.computeIfAbsent(rows.getObject(1, UUID.class), id -> new ArrayList<>())
+                            .add(rows.getObject(2, UUID.class));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT school_id, id, email FROM users WHERE email LIKE 'admin.%@loadtest.drissman'")) {
+                while (rows.next()) {
+                    data.adminsBySchool.put(rows.getObject(1, UUID.class),
+                            new Account(rows.getObject(2, UUID.class), rows.getString(3), "SCHOOL_ADMIN",
+                                    rows.getObject(1, UUID.class)));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery(
+                    "SELECT id, email FROM users WHERE email LIKE 'student%@loadtest.drissman'")) {
+                while (rows.next()) {
+                    data.students.add(new Account(rows.getObject(1, UUID.class), rows.getString(2), "STUDENT", null));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery("""
+                    SELECT b.id, b.school_id FROM bookings b JOIN schools s ON s.id = b.school_id
+                    WHERE s.name LIKE 'Load School %' AND b.status = 'PENDING'
+                    """)) {
+                while (rows.next()) {
+                    data.pendingBookings.add(
+                            new PendingBooking(rows.getObject(1, UUID.class), rows.getObject(2, UUID.class)));
+                }
+            }
+        }
+        return data;
+    }
+
+    public List<UUID> schoolIds() {
+        return schoolIds;
+    }
+
+    public List<UUID> offersOf(UUID schoolId) {
+        return offersBySchool.get(schoolId);
+    }
+
+    public Account adminOf(UUID schoolId) {
+        return adminsBySchool.get(schoolId);
+    }
+
+    public List<Account> students() {
+        return students;
+    }
+
+    public List<PendingBooking> pendingBookings() {
+        return pendingBookings;
+    }
+
+    public record Account(UUID id, String email, String role, UUID schoolId) {
+    }
+
+    public record PendingBooking(UUID id, UUID schoolId) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.drissman.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Weighted mix of API calls made by the virtual users.
+ *
+ * Bookings created by the mix join the seeded PENDING bookings in the queue
+ * the status updates draw from, so every PATCH acts on a booking that is
+ * still pending (80% are confirmed, the rest cancelled).
+ */
+public class Scenario {
+
+    public static final String DEFAULT_MIX = "schools=40,sessions=20,stats=15,book=15,status=10";
+
+    private final HttpClient client;
+    private final LoadTestData data;
+    private final Function<LoadTestData.Account, String> tokens;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Queue<LoadTestData.PendingBooking> pendingBookings;
+    private final List<Step> steps = new ArrayList<>();
+    private final int totalWeight;
+    private Map<String, EndpointStats> stats;
+
+    public Scenario(HttpClient client, LoadTestData data, Function<LoadTestData.Account, String> tokens, String mix) {
+        this.client = client;
+        this.data = data;
+        this.tokens = tokens;
+        this.pendingBookings = new ConcurrentLinkedQueue<>(data.pendingBookings());
+
+        Map<String, Function<ThreadLocalRandom, Mono<Boolean>>> calls = Map.of(
+                "schools", random -> listSchools(),
+                "sessions", this::schoolPlanning,
+                "stats", this::partnerStats,
+                "book", this::createBooking,
+                "status", this::updateBookingStatus);
+        int weight = 0;
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Function<ThreadLocalRandom, Mono<Boolean>> call = calls.get(parts[0]);
+            if (call == null || parts.length != 2) {
+                throw new IllegalArgumentException("Unknown mix entry '" + entry + "', expected one of "
+                        + calls.keySet());
+            }
+            weight += Integer.parseInt(parts[1]);
+            steps.add(new Step(parts[0], weight, call));
+        }
+        this.totalWeight = weight;
+        reset();
+    }
+
+    /**
+     * Starts a new measurement window and returns the recorders of the previous one.
+     */
+    public Map<String, EndpointStats> reset() {
+        Map<String, EndpointStats> previous = stats;
+        Map<String, EndpointStats> next = new LinkedHashMap<>();
+        steps.forEach(step -> next.put(step.name(), new EndpointStats(step.name())));
+        stats = next;
+        return previous;
+    }
+
+    /**
+     * One call drawn from the mix, timed and recorded. Never errors.
+     */
+    public Mono<Void> next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int draw = random.nextInt(totalWeight);
+        Step step = steps.stream().filter(s -> draw < s.cumulativeWeight()).findFirst().orElseThrow();
+        EndpointStats recorder = stats.get(step.name());
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return step.call().apply(random)
+                    .onErrorReturn(false)
+                    .doOnNext(success -> recorder.record(System.nanoTime() - start, success));
+        }).then();
+    }
+
+    private Mono<Boolean> listSchools() {
+        return get("/api/schools", null);
+    }
+
+    private Mono<Boolean> schoolPlanning(ThreadLocalRandom random) {
+        UUID schoolId = pick(data.schoolIds(), random);
+        LocalDate today = LocalDate.now();
+        return get("/api/sessions/school/" + schoolId + "?from=" + today + "&to=" + today.plusDays(7),
+                data.adminOf(schoolId));
+    }
+
+    private Mono<Boolean> partnerStats(ThreadLocalRandom random) {
+        return get("/api/partner/stats", data.adminOf(pick(data.schoolIds(), random)));
+    }
+
+    private Mono<Boolean> createBooking(ThreadLocalRandom random) {
+        UUID schoolId = pick(data.schoolIds(), random);
+        LocalDate date = LocalDate.now().plusDays(1 + random.nextInt(14));
+        String body = """
+                {"schoolId":"%s","offerId":"%s","date":"%s","time":"%02d:00"}"""
+                .formatted(schoolId, pick(data.offersOf(schoolId), random), date, 8 + random.nextInt(10));
+        return authorized(data.students().get(random.nextInt(data.students().size())))
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON))
+                .post()
+                .uri("/api/bookings")
+                .send(ByteBufFlux.fromString(Mono.just(body)))
+                .responseSingle((response, content) -> content.asByteArray()
+                        .defaultIfEmpty(new byte[0])
+                        .map(bytes -> {
+                            boolean created = response.status().code() == 201;
+                            if (created) {
+                                pendingBookings.add(new LoadTestData.PendingBooking(
+                                        UUID.fromString(readId(bytes)), schoolId));
+                            }
+                            return created;
+                        }));
+    }
+
+    private Mono<Boolean> updateBookingStatus(ThreadLocalRandom random) {
+        LoadTestData.PendingBooking booking = pendingBookings.poll();
+        if (booking == null) {
+            return listSchools();
+        }
+        String status = random.nextInt(10) < 8 ? "CONFIRMED" : "CANCELLED";
+        return authorized(data.adminOf(booking.schoolId()))
+                .patch()
+                .uri("/api/bookings/" + booking.id() + "/status?status=" + status)
+                .responseSingle((response, content) -> content.asByteArray()
+                        .then(Mono.just(response.status().code() == 200)));
+    }
+
+    private Mono<Boolean> get(String uri, LoadTestData.Account account) {
+        return authorized(account)
+                .get()
+                .uri(uri)
+                .responseSingle((response, content) -> content.asByteArray()
+                        .then(Mono.just(response.status().code() == 200)));
+    }
+
+    private HttpClient authorized(LoadTestData.Account account) {
+        if (account == null) {
+            return client;
+        }
+        String token = tokens.apply(account);
+        return client.headers(headers -> headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private String readId(byte[] json) {
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            return node.path("id").asText();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable booking response", e);
+        }
+    }
+
+    private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private record Step(String name, int cumulativeWeight, Function<ThreadLocalRandom, Mono<Boolean>> call) {
+    }
+}
@@ -2,11 +2,14 @@ package com.drissman.api.controller;
 
 import com.drissman.api.dto.AuthResponse;
 import com.drissman.api.dto.LoginRequest;
+import com.drissman.api.dto.RefreshRequest;
 import com.drissman.api.dto.RegisterRequest;
+import com.drissman.security.AuthenticatedUser;
 import com.drissman.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
@@ -27,4 +30,38 @@ public class AuthController {
     public Mono<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
         return authService.login(request);
     }
+
+    /**
+     * Exchanges a refresh token (single use) for a new token pair.
+     */
+    @PostMapping("/refresh")
+    public Mono<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return authService.refresh(request);
+    }
+
+    /**
+     * Re-issues the caller's token with its current school assignment; the
+     * presented token is revoked.
+     */
+    @PostMapping("/token")
+    public Mono<AuthResponse> reissue(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
+            return Mono.error(new RuntimeException("Authentification requise"));
+        }
+        return authService.reissue(user);
+    }
+
+    /**
+     * Revokes the caller's token: it is refused on every instance until it
+     * expires. The refresh token of the session, if sent, is revoked too.
+     */
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> logout(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestBody(required = false) RefreshRequest request) {
+        if (user == null) {
+            return Mono.error(new RuntimeException("Authentification requise"));
+        }
+        return authService.logout(user, request != null ? request.getRefreshToken() : null);
+    }
 }
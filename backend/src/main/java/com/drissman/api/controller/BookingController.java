@@ -2,12 +2,15 @@ package com.drissman.api.controller;
 
 import com.drissman.api.dto.BookingDto;
 import com.drissman.api.dto.CreateBookingRequest;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.domain.entity.Booking;
 import com.drissman.service.BookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -41,25 +44,41 @@ public class BookingController {
     }
 
     /**
-     * Get all bookings for the authenticated user.
+     * Get the bookings of the authenticated user, newest first.
+     * Paginated when {@code limit} is given (see {@link Pages}).
      */
     @GetMapping
-    public Flux<BookingDto> getMyBookings(java.security.Principal principal) {
+    public Mono<ResponseEntity<Flux<BookingDto>>> getMyBookings(
+            java.security.Principal principal,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
         // Demo mode: return empty list if no authenticated user
         if (principal == null) {
             log.info("Demo mode: returning empty bookings list");
-            return Flux.empty();
+            return Pages.empty();
         }
         UUID userId = UUID.fromString(principal.getName());
-        return bookingService.findByUserId(userId);
+        if (limit == null) {
+            return Pages.all(bookingService.findByUserId(userId));
+        }
+        return Pages.page(bookingService.findByUserId(userId, PageCursor.decode(after),
+                CursorPage.clampLimit(limit)));
     }
 
     /**
-     * Get all bookings for a specific school (for school admins).
+     * Get the bookings of a specific school (for school admins), newest first.
+     * Paginated when {@code limit} is given (see {@link Pages}).
      */
     @GetMapping("/school/{schoolId}")
-    public Flux<BookingDto> getSchoolBookings(@PathVariable UUID schoolId) {
-        return bookingService.findBySchoolId(schoolId);
+    public Mono<ResponseEntity<Flux<BookingDto>>> getSchoolBookings(
+            @PathVariable UUID schoolId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        if (limit == null) {
+            return Pages.all(bookingService.findBySchoolId(schoolId));
+        }
+        return Pages.page(bookingService.findBySchoolId(schoolId, PageCursor.decode(after),
+                CursorPage.clampLimit(limit)));
     }
 
     /**
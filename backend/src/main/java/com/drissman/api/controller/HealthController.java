@@ -1,5 +1,7 @@
 package com.drissman.api.controller;
 
+import com.drissman.cache.CacheStats;
+import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -9,12 +11,23 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
+@RequiredArgsConstructor
 public class HealthController {
 
+    private final CacheStats cacheStats;
+
     @GetMapping("/health")
     public Mono<Map<String, String>> health() {
         return Mono.just(Map.of(
                 "status", "UP",
                 "service", "drissman-backend"));
     }
+
+    /**
+     * Hit / miss / error counters of the reference data cache.
+     */
+    @GetMapping("/health/cache")
+    public Mono<Map<String, Map<String, Long>>> cache() {
+        return Mono.just(cacheStats.snapshot());
+    }
 }
@@ -1,10 +1,14 @@
 package com.drissman.api.controller;
 
+import com.drissman.api.dto.CursorPage;
 import com.drissman.api.dto.InvoiceDto;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.domain.entity.Invoice;
 import com.drissman.service.InvoiceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -35,11 +39,28 @@ public class InvoiceController {
     }
 
     /**
-     * Get all invoices for a school
+     * Get the invoices of a school, newest first.
+     * Paginated when {@code limit} is given (see {@link Pages}).
      */
     @GetMapping("/school/{schoolId}")
-    public Flux<InvoiceDto> getBySchoolId(@PathVariable UUID schoolId) {
-        return invoiceService.findBySchoolId(schoolId);
+    public Mono<ResponseEntity<Flux<InvoiceDto>>> getBySchoolId(
+            @PathVariable UUID schoolId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        if (limit == null) {
+            return Pages.all(invoiceService.findBySchoolId(schoolId));
+        }
+        return Pages.page(invoiceService.findBySchoolId(schoolId, PageCursor.decode(after),
+                CursorPage.clampLimit(limit)));
+    }
+
+    /**
+     * Streams the invoices of a school as NDJSON or SSE, one row at a time.
+     */
+    @GetMapping(value = "/school/{schoolId}", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<InvoiceDto> streamBySchoolId(@PathVariable UUID schoolId) {
+        return invoiceService.streamBySchoolId(schoolId);
     }
 
     /**
@@ -0,0 +1,40 @@
+package com.drissman.api.controller;
+
+import com.drissman.api.dto.CursorPage;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Response shape shared by the paginated list endpoints.
+ *
+ * The body stays a plain JSON array; when the client passes {@code limit},
+ * only that page is returned and the cursor to pass as {@code after} for the
+ * next one is sent in the {@value #NEXT_CURSOR_HEADER} header (absent on the
+ * last page). Without {@code limit} the full list is returned as before.
+ */
+final class Pages {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Pages() {
+    }
+
+    static <T> Mono<ResponseEntity<Flux<T>>> all(Flux<T> items) {
+        return Mono.just(ResponseEntity.ok(items));
+    }
+
+    static <T> Mono<ResponseEntity<Flux<T>>> page(Mono<CursorPage<T>> page) {
+        return page.map(p -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (p.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, p.nextCursor());
+            }
+            return response.body(Flux.fromIterable(p.items()));
+        });
+    }
+
+    static <T> Mono<ResponseEntity<Flux<T>>> empty() {
+        return all(Flux.empty());
+    }
+}
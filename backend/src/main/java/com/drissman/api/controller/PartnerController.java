@@ -1,18 +1,25 @@
 package com.drissman.api.controller;
 
 import com.drissman.api.dto.BookingDto;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.EnrollmentDto;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.api.dto.PartnerStatsDto;
 import com.drissman.api.dto.UpdateSchoolRequest;
+import com.drissman.domain.entity.User;
 import com.drissman.domain.repository.UserRepository;
+import com.drissman.security.AuthenticatedUser;
 import com.drissman.service.PartnerService;
 import com.drissman.service.SchoolService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.security.Principal;
 import java.util.UUID;
 
 @RestController
@@ -26,9 +33,9 @@ public class PartnerController {
     private final UserRepository userRepository;
 
     @GetMapping("/stats")
-    public Mono<PartnerStatsDto> getStats(Principal principal) {
+    public Mono<PartnerStatsDto> getStats(@AuthenticationPrincipal AuthenticatedUser user) {
         // Demo mode: return mock stats if no authenticated user
-        if (principal == null) {
+        if (user == null) {
             log.info("Demo mode: returning mock stats");
             return Mono.just(PartnerStatsDto.builder()
                     .revenue("2,450,000 FCFA")
@@ -40,71 +47,98 @@ public class PartnerController {
                     .build());
         }
 
-        log.info("Fetching stats for user: {}", principal.getName());
-        UUID userId = UUID.fromString(principal.getName());
-
-        return userRepository.findById(userId)
-                .flatMap(user -> {
-                    if (user.getSchoolId() == null) {
-                        return Mono.just(PartnerStatsDto.builder()
-                                .revenue("0 FCFA")
-                                .enrollments(0)
-                                .successRate("0%")
-                                .upcomingLessons(0)
-                                .revenueGrowth(0)
-                                .enrollmentGrowth(0)
-                                .build());
-                    }
-                    return partnerService.getStats(user.getSchoolId());
-                })
-                .switchIfEmpty(Mono.error(new RuntimeException("Utilisateur non trouvé")));
+        log.info("Fetching stats for user: {}", user.getName());
+
+        return schoolOf(user)
+                .flatMap(partnerService::getStats)
+                .switchIfEmpty(Mono.fromSupplier(() -> PartnerStatsDto.builder()
+                        .revenue("0 FCFA")
+                        .enrollments(0)
+                        .successRate("0%")
+                        .upcomingLessons(0)
+                        .revenueGrowth(0)
+                        .enrollmentGrowth(0)
+                        .build()));
     }
 
     @GetMapping("/bookings")
-    public Flux<BookingDto> getBookings(Principal principal) {
+    public Flux<BookingDto> getBookings(@AuthenticationPrincipal AuthenticatedUser user) {
         // Demo mode: return empty list if no authenticated user
-        if (principal == null) {
+        if (user == null) {
             log.info("Demo mode: returning empty bookings");
             return Flux.empty();
         }
 
-        UUID userId = UUID.fromString(principal.getName());
+        return schoolOf(user)
+                .flatMapMany(partnerService::getBookings);
+    }
 
-        return userRepository.findById(userId)
-                .flatMapMany(user -> {
-                    if (user.getSchoolId() == null) {
-                        return Flux.empty();
-                    }
-                    return partnerService.getBookings(user.getSchoolId());
-                });
+    /**
+     * Streams the school's bookings one JSON document per row (NDJSON) or one
+     * event per row (SSE), as they are read from the database.
+     */
+    @GetMapping(value = "/bookings", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<BookingDto> streamBookings(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null) {
+            return Flux.empty();
+        }
+
+        return schoolOf(user)
+                .flatMapMany(partnerService::streamBookings);
     }
 
     @PatchMapping("/school")
-    public Mono<Void> updateSchool(Principal principal, @RequestBody UpdateSchoolRequest request) {
-        if (principal == null)
+    public Mono<Void> updateSchool(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestBody UpdateSchoolRequest request) {
+        if (user == null)
             return Mono.empty();
 
-        UUID userId = UUID.fromString(principal.getName());
-        return userRepository.findById(userId)
-                .flatMap(user -> {
-                    if (user.getSchoolId() == null)
-                        return Mono.empty();
-                    return schoolService.update(user.getSchoolId(), request)
-                            .then();
-                });
+        return schoolOf(user)
+                .flatMap(schoolId -> schoolService.update(schoolId, request))
+                .then();
     }
 
     @GetMapping("/enrollments")
-    public Flux<com.drissman.api.dto.EnrollmentDto> getEnrollments(Principal principal) {
-        if (principal == null)
+    public Mono<ResponseEntity<Flux<EnrollmentDto>>> getEnrollments(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        if (user == null)
+            return Pages.empty();
+
+        PageCursor cursor = PageCursor.decode(after);
+        return schoolOf(user)
+                .flatMap(schoolId -> {
+                    if (limit == null)
+                        return Pages.all(partnerService.getEnrollments(schoolId));
+                    return Pages.page(partnerService.getEnrollments(schoolId, cursor,
+                            CursorPage.clampLimit(limit)));
+                })
+                .switchIfEmpty(Pages.empty());
+    }
+
+    @GetMapping(value = "/enrollments", produces = { MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<EnrollmentDto> streamEnrollments(@AuthenticationPrincipal AuthenticatedUser user) {
+        if (user == null)
             return Flux.empty();
 
-        UUID userId = UUID.fromString(principal.getName());
-        return userRepository.findById(userId)
-                .flatMapMany(user -> {
-                    if (user.getSchoolId() == null)
-                        return Flux.empty();
-                    return partnerService.getEnrollments(user.getSchoolId());
-                });
+        return schoolOf(user)
+                .flatMapMany(partnerService::streamEnrollments);
+    }
+
+    /**
+     * The caller's school, read from the token: a change of assignment revokes
+     * the user's tokens (AuthService.revokeSessions), so the claim is current.
+     * Only school admins holding a token issued before the school claim
+     * existed fall back to the user row.
+     */
+    private Mono<UUID> schoolOf(AuthenticatedUser user) {
+        if (user.schoolId() != null || !User.Role.SCHOOL_ADMIN.name().equals(user.role())) {
+            return Mono.justOrEmpty(user.schoolId());
+        }
+        return userRepository.findById(user.userId())
+                .mapNotNull(User::getSchoolId);
     }
 }
@@ -1,12 +1,15 @@
 package com.drissman.api.controller;
 
 import com.drissman.api.dto.CreateReviewRequest;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.api.dto.ReviewDto;
 import com.drissman.service.ReviewService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -39,11 +42,19 @@ public class ReviewController {
     }
 
     /**
-     * Get all reviews for a school
+     * Get the reviews of a school, newest first.
+     * Paginated when {@code limit} is given (see {@link Pages}).
      */
     @GetMapping("/school/{schoolId}")
-    public Flux<ReviewDto> getBySchool(@PathVariable UUID schoolId) {
-        return reviewService.findBySchoolId(schoolId);
+    public Mono<ResponseEntity<Flux<ReviewDto>>> getBySchool(
+            @PathVariable UUID schoolId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        if (limit == null) {
+            return Pages.all(reviewService.findBySchoolId(schoolId));
+        }
+        return Pages.page(reviewService.findBySchoolId(schoolId, PageCursor.decode(after),
+                CursorPage.clampLimit(limit)));
     }
 
     /**
@@ -1,13 +1,17 @@
 package com.drissman.api.controller;
 
 import com.drissman.api.dto.SchoolDto;
+import com.drissman.api.dto.SlotDto;
 import com.drissman.service.SchoolService;
+import com.drissman.service.SlotService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -16,6 +20,7 @@ import java.util.UUID;
 public class SchoolController {
 
     private final SchoolService schoolService;
+    private final SlotService slotService;
 
     @GetMapping
     public Flux<SchoolDto> getAll(@RequestParam(required = false) String city) {
@@ -28,4 +33,15 @@ public class SchoolController {
                 .map(ResponseEntity::ok)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Bookable slots of the school between {@code from} and {@code to} (ISO dates, inclusive).
+     */
+    @GetMapping("/{id}/slots")
+    public Flux<SlotDto> getSlots(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return slotService.findSlots(id, from, to);
+    }
 }
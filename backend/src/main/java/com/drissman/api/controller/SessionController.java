@@ -1,17 +1,22 @@
 package com.drissman.api.controller;
 
 import com.drissman.api.dto.CreateSessionRequest;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.api.dto.SessionDto;
 import com.drissman.domain.entity.Session;
 import com.drissman.service.SessionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.security.Principal;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -21,9 +26,22 @@ public class SessionController {
 
     private final SessionService sessionService;
 
+    /**
+     * Planning of a school, optionally restricted to the dates [from, to] (ISO, inclusive).
+     * Paginated when {@code limit} is given (see {@link Pages}).
+     */
     @GetMapping("/school/{schoolId}")
-    public Flux<SessionDto> getBySchool(@PathVariable UUID schoolId) {
-        return sessionService.findBySchoolId(schoolId);
+    public Mono<ResponseEntity<Flux<SessionDto>>> getBySchool(
+            @PathVariable UUID schoolId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        if (limit == null) {
+            return Pages.all(sessionService.findBySchoolId(schoolId, from, to));
+        }
+        return Pages.page(sessionService.findBySchoolId(schoolId, from, to, PageCursor.decode(after),
+                CursorPage.clampLimit(limit)));
     }
 
     @GetMapping("/monitor/{monitorId}")
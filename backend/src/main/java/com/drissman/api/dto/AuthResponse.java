@@ -14,6 +14,9 @@ import java.util.UUID;
 public class AuthResponse {
     private UserDto user;
     private String token;
+    private String refreshToken;
+    // Lifetime of the access token in seconds
+    private long expiresIn;
 
     @Data
     @Builder
@@ -0,0 +1,41 @@
+package com.drissman.api.dto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list and the cursor of the next page
+ * ({@code null} on the last page).
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public static final int MAX_LIMIT = 100;
+
+    /**
+     * Page size actually served for a requested {@code limit}.
+     */
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Builds a page from a keyset query that fetched {@code limit + 1} rows; the
+     * extra row only tells whether a next page exists. The remaining rows are
+     * mapped with {@code mapper}, which must preserve their order.
+     */
+    public static <E, T> Mono<CursorPage<T>> of(Flux<E> rows, int limit, Function<E, PageCursor> cursorOf,
+            Function<Flux<E>, Flux<T>> mapper) {
+        return rows.collectList()
+                .flatMap(list -> {
+                    boolean hasMore = list.size() > limit;
+                    List<E> page = hasMore ? list.subList(0, limit) : list;
+                    String next = hasMore ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+                    return mapper.apply(Flux.fromIterable(page))
+                            .collectList()
+                            .map(items -> new CursorPage<>(items, next));
+                });
+    }
+}
@@ -0,0 +1,42 @@
+package com.drissman.api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a list ordered by {@code created_at DESC, id DESC}.
+ *
+ * Encoded as an opaque base64url token for the {@code after} query parameter
+ * and the {@code X-Next-Cursor} response header. {@link #FIRST} sorts after
+ * every row, so it selects the first page.
+ */
+public record PageCursor(LocalDateTime createdAt, UUID id) {
+
+    public static final PageCursor FIRST = new PageCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an {@code after} parameter; a missing one means the first page.
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.drissman.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    @NotBlank
+    private String refreshToken;
+}
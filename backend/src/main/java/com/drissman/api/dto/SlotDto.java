@@ -0,0 +1,20 @@
+package com.drissman.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotDto {
+    private LocalDate date;
+    private String startTime; // "09:00", the value to send as CreateBookingRequest.time
+    private String endTime;
+    private int capacity;
+    private int available;
+}
@@ -1,17 +1,38 @@
 package com.drissman.api.exception;
 
 import com.drissman.api.dto.ErrorResponse;
+import com.drissman.service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.support.WebExchangeBindException;
 
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+    private final Duration retryAfter;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry,
+            @Value("${db.overload.retry-after:2s}") Duration retryAfter) {
+        this.meterRegistry = meterRegistry;
+        this.retryAfter = retryAfter;
+    }
+
     /**
      * Handles validation errors from @Valid annotations.
      */
@@ -43,6 +64,52 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    /**
+     * No database connection could be obtained: the pool stayed exhausted for
+     * spring.r2dbc.pool.max-acquire-time, or Postgres is unreachable. Answered
+     * with 503 and Retry-After so that clients and load balancers back off.
+     */
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailable(DataAccessResourceFailureException ex) {
+        return databaseUnavailable(ex);
+    }
+
+    /**
+     * A @Transactional method could not begin: when that is because no
+     * connection could be obtained, it is the same overload as above.
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorResponse> handleTransactionUnavailable(CannotCreateTransactionException ex) {
+        return isResourceFailure(ex) ? databaseUnavailable(ex) : handleGenericException(ex);
+    }
+
+    private ResponseEntity<ErrorResponse> databaseUnavailable(Exception ex) {
+        String cause = isTimeout(ex) ? "pool_exhausted" : "connection_failed";
+        meterRegistry.counter("drissman.db.unavailable", "cause", cause).increment();
+        log.warn("Database unavailable ({}): {}", cause, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                .body(ErrorResponse.builder()
+                        .error("Service momentanément surchargé, veuillez réessayer")
+                        .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                        .build());
+    }
+
+    /**
+     * Password hashing is saturated (see PasswordHashingService): answered at
+     * once with 429 rather than queueing the caller behind the burst.
+     */
+    @ExceptionHandler(PasswordHashingService.SaturatedException.class)
+    public ResponseEntity<ErrorResponse> handleHashingSaturated(PasswordHashingService.SaturatedException ex) {
+        log.warn("Too many requests: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ErrorResponse.builder()
+                        .error("Trop de demandes simultanées, veuillez réessayer")
+                        .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                        .build());
+    }
+
     /**
      * Handles RuntimeException with contextual mapping:
      * - "non trouvé" / "not found" → 404
@@ -77,6 +144,28 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    private static boolean isResourceFailure(Throwable ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessResourceFailureException
+                    || cause instanceof R2dbcTransientResourceException
+                    || cause instanceof R2dbcNonTransientResourceException
+                    || cause instanceof R2dbcTimeoutException
+                    || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Catch-all for unexpected errors.
      */
@@ -0,0 +1,54 @@
+package com.drissman.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the {@link CacheStats} counters of every region as
+ * {@code cache.gets} (result {@code near_hit}, {@code hit} or {@code miss}) and
+ * {@code cache.errors}, plus the lifetime hit ratio of each region. Rates and
+ * windowed ratios are derived from the counters on the monitoring side.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics implements MeterBinder {
+
+    private final CacheStats stats;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CacheRegion region : CacheRegion.values()) {
+            String name = region.getName();
+            FunctionCounter.builder("cache.gets", stats, s -> s.nearHits(region))
+                    .tags("cache", name, "result", "near_hit")
+                    .description("Lookups answered by the in-process tier")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", stats, s -> s.hits(region))
+                    .tags("cache", name, "result", "hit")
+                    .description("Lookups answered by Redis")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", stats, s -> s.misses(region))
+                    .tags("cache", name, "result", "miss")
+                    .description("Lookups loaded from Postgres")
+                    .register(registry);
+            FunctionCounter.builder("cache.errors", stats, s -> s.errors(region))
+                    .tags("cache", name)
+                    .description("Redis failures answered from the loader")
+                    .register(registry);
+            Gauge.builder("cache.hit.ratio", stats, s -> hitRatio(s, region))
+                    .tags("cache", name)
+                    .description("Share of lookups answered without Postgres since startup")
+                    .register(registry);
+        }
+    }
+
+    private static double hitRatio(CacheStats stats, CacheRegion region) {
+        long hits = stats.nearHits(region) + stats.hits(region);
+        long total = hits + stats.misses(region);
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,39 @@
+package com.drissman.cache;
+
+import java.time.Duration;
+
+/**
+ * Reference entities kept in the shared cache, with their default TTL.
+ * The TTL can be overridden with {@code cache.ttl.<name>} (ISO-8601 or "10m").
+ */
+public enum CacheRegion {
+    SCHOOLS("schools", Duration.ofMinutes(30)),
+    OFFERS("offers", Duration.ofMinutes(30)),
+    USERS("users", Duration.ofMinutes(10)),
+    MONITORS("monitors", Duration.ofMinutes(30));
+
+    private final String name;
+    private final Duration defaultTtl;
+
+    CacheRegion(String name, Duration defaultTtl) {
+        this.name = name;
+        this.defaultTtl = defaultTtl;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public static CacheRegion fromName(String name) {
+        for (CacheRegion region : values()) {
+            if (region.name.equals(name)) {
+                return region;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cache region: " + name);
+    }
+}
@@ -0,0 +1,78 @@
+package com.drissman.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit / miss / error counters per cache region. Near hits are answered by the
+ * in-process tier, hits by Redis; a miss means the entity was loaded from Postgres.
+ */
+@Component
+public class CacheStats {
+
+    private final Map<CacheRegion, Counters> counters = new EnumMap<>(CacheRegion.class);
+
+    public CacheStats() {
+        for (CacheRegion region : CacheRegion.values()) {
+            counters.put(region, new Counters());
+        }
+    }
+
+    public void nearHit(CacheRegion region, int count) {
+        counters.get(region).nearHits.add(count);
+    }
+
+    public void hit(CacheRegion region, int count) {
+        counters.get(region).hits.add(count);
+    }
+
+    public void miss(CacheRegion region, int count) {
+        counters.get(region).misses.add(count);
+    }
+
+    public void error(CacheRegion region) {
+        counters.get(region).errors.increment();
+    }
+
+    public long nearHits(CacheRegion region) {
+        return counters.get(region).nearHits.sum();
+    }
+
+    public long hits(CacheRegion region) {
+        return counters.get(region).hits.sum();
+    }
+
+    public long misses(CacheRegion region) {
+        return counters.get(region).misses.sum();
+    }
+
+    public long errors(CacheRegion region) {
+        return counters.get(region).errors.sum();
+    }
+
+    /**
+     * Snapshot of all counters, keyed by region name.
+     */
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> snapshot = new LinkedHashMap<>();
+        for (CacheRegion region : CacheRegion.values()) {
+            snapshot.put(region.getName(), Map.of(
+                    "nearHits", nearHits(region),
+                    "hits", hits(region),
+                    "misses", misses(region),
+                    "errors", errors(region)));
+        }
+        return snapshot;
+    }
+
+    private static final class Counters {
+        private final LongAdder nearHits = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,129 @@
+package com.drissman.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded per-JVM tier in front of Redis.
+ *
+ * Entries expire after {@code cache.near.ttl} and are evicted by size. Every
+ * write made through {@link RedisEntityCache} is broadcast on a Redis channel so
+ * that all instances drop their local copy; the TTL bounds staleness if a
+ * message is missed while the subscription is down.
+ *
+ * The cached entities are mutable beans, so the tier keeps its own copy of
+ * each value and hands every caller a fresh copy: a caller changing what it
+ * got (a setter before a save) cannot alter the cached entry. Their fields are
+ * all immutable types (UUID, String, numbers, dates, enums), so a shallow copy
+ * is a complete one.
+ */
+@Component
+@Slf4j
+public class NearCache {
+
+    static final String INVALIDATION_CHANNEL = "drissman:cache:invalidate";
+
+    private final ReactiveStringRedisTemplate redis;
+    private final boolean enabled;
+    private final Map<CacheRegion, Cache<UUID, Object>> regions = new EnumMap<>(CacheRegion.class);
+    private Disposable subscription;
+
+    public NearCache(ReactiveStringRedisTemplate redis, Environment environment) {
+        this.redis = redis;
+        this.enabled = environment.getProperty("cache.enabled", Boolean.class, true);
+        long maxSize = environment.getProperty("cache.near.max-size", Long.class, 10_000L);
+        Duration ttl = environment.getProperty("cache.near.ttl", Duration.class, Duration.ofSeconds(60));
+        for (CacheRegion region : CacheRegion.values()) {
+            regions.put(region, Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .build());
+        }
+    }
+
+    public <T> T get(CacheRegion region, UUID id, Class<T> type) {
+        Object value = regions.get(region).getIfPresent(id);
+        return type.isInstance(value) ? type.cast(copy(value)) : null;
+    }
+
+    public void put(CacheRegion region, UUID id, Object value) {
+        regions.get(region).put(id, copy(value));
+    }
+
+    public void invalidate(CacheRegion region, UUID id) {
+        regions.get(region).invalidate(id);
+    }
+
+    /**
+     * Drops the local copy and tells the other instances to do the same.
+     */
+    public Mono<Void> broadcastInvalidation(CacheRegion region, UUID id) {
+        invalidate(region, id);
+        return redis.convertAndSend(INVALIDATION_CHANNEL, region.getName() + ":" + id)
+                .onErrorResume(e -> {
+                    log.warn("Could not broadcast cache invalidation for {}:{}: {}", region.getName(), id,
+                            e.getMessage());
+                    return Mono.just(0L);
+                })
+                .then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        // Deferred: listenToChannel connects eagerly, and an unreachable Redis must be retried, not thrown
+        subscription = Flux.defer(() -> redis.listenToChannel(INVALIDATION_CHANNEL))
+                // Messages may have been missed before (re)subscribing
+                .doOnSubscribe(s -> invalidateAll())
+                .doOnNext(message -> onInvalidation(message.getMessage()))
+                .doOnError(e -> log.warn("Cache invalidation subscription lost: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private void onInvalidation(String message) {
+        int separator = message.indexOf(':');
+        try {
+            CacheRegion region = CacheRegion.fromName(message.substring(0, separator));
+            invalidate(region, UUID.fromString(message.substring(separator + 1)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            log.warn("Ignoring malformed cache invalidation message: {}", message);
+        }
+    }
+
+    private static Object copy(Object value) {
+        Object copy = BeanUtils.instantiateClass(value.getClass());
+        BeanUtils.copyProperties(value, copy);
+        return copy;
+    }
+
+    private void invalidateAll() {
+        regions.values().forEach(Cache::invalidateAll);
+    }
+}
@@ -0,0 +1,242 @@
+package com.drissman.cache;
+
+import com.drissman.db.ReplicaRoutingConnectionFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through / write-through cache of reference entities stored in Redis as JSON,
+ * fronted by a {@link NearCache} so that hot lookups cost no network I/O.
+ *
+ * Redis is an optimisation only: any Redis failure is counted, logged and
+ * answered from the loader, so the API keeps working when Redis is down.
+ */
+@Component
+@Slf4j
+public class RedisEntityCache {
+
+    private static final String KEY_PREFIX = "drissman:";
+
+    private final ReactiveStringRedisTemplate redis;
+    private final NearCache nearCache;
+    private final ObjectMapper objectMapper;
+    private final CacheStats stats;
+    private final boolean enabled;
+    private final Map<CacheRegion, Duration> ttls = new EnumMap<>(CacheRegion.class);
+
+    public RedisEntityCache(ReactiveStringRedisTemplate redis, NearCache nearCache, ObjectMapper objectMapper,
+            CacheStats stats, Environment environment) {
+        this.redis = redis;
+        this.nearCache = nearCache;
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+        this.enabled = environment.getProperty("cache.enabled", Boolean.class, true);
+        for (CacheRegion region : CacheRegion.values()) {
+            ttls.put(region, environment.getProperty("cache.ttl." + region.getName(), Duration.class,
+                    region.getDefaultTtl()));
+        }
+    }
+
+    /**
+     * Returns the cached value for {@code id}, or loads it and stores it on a miss.
+     */
+    public <T> Mono<T> get(CacheRegion region, UUID id, Class<T> type, Supplier<Mono<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> lookup(region, id, type, loader));
+    }
+
+    private <T> Mono<T> lookup(CacheRegion region, UUID id, Class<T> type, Supplier<Mono<T>> loader) {
+        T local = nearCache.get(region, id, type);
+        if (local != null) {
+            stats.nearHit(region, 1);
+            return Mono.just(local);
+        }
+        String key = key(region, id);
+        return redis.opsForValue().get(key)
+                .map(json -> read(json, type))
+                .doOnNext(value -> {
+                    stats.hit(region, 1);
+                    nearCache.put(region, id, value);
+                })
+                .onErrorResume(e -> {
+                    stats.error(region);
+                    log.debug("Cache read failed for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    stats.miss(region, 1);
+                    // Cached values must not come from a replica that has not caught up with the last write
+                    return ReplicaRoutingConnectionFactory.onPrimary(loader.get())
+                            .flatMap(value -> fill(region, id, key, value).thenReturn(value));
+                }));
+    }
+
+    /**
+     * Multi-key variant of {@link #get}: IDs absent from the near tier are fetched
+     * with a single MGET and only the remaining misses are passed to the loader.
+     * Results are unordered.
+     */
+    public <T> Flux<T> getAll(CacheRegion region, Collection<UUID> ids, Class<T> type, Function<T, UUID> idOf,
+            Function<UUID[], Flux<T>> loader) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        if (!enabled) {
+            return loader.apply(ids.toArray(UUID[]::new));
+        }
+        return Flux.defer(() -> lookupAll(region, ids, type, idOf, loader));
+    }
+
+    private <T> Flux<T> lookupAll(CacheRegion region, Collection<UUID> ids, Class<T> type, Function<T, UUID> idOf,
+            Function<UUID[], Flux<T>> loader) {
+        List<T> local = new ArrayList<>();
+        List<UUID> requested = new ArrayList<>();
+        for (UUID id : ids) {
+            T value = nearCache.get(region, id, type);
+            if (value != null) {
+                local.add(value);
+            } else {
+                requested.add(id);
+            }
+        }
+        stats.nearHit(region, local.size());
+        if (requested.isEmpty()) {
+            return Flux.fromIterable(local);
+        }
+        List<String> keys = requested.stream().map(id -> key(region, id)).toList();
+
+        Flux<T> remote = redis.opsForValue().multiGet(keys)
+                .onErrorResume(e -> {
+                    stats.error(region);
+                    log.debug("Cache multi-read failed for region {}: {}", region.getName(), e.getMessage());
+                    return Mono.just(Collections.<String>nCopies(keys.size(), null));
+                })
+                .flatMapMany(values -> {
+                    List<T> hits = new ArrayList<>();
+                    List<UUID> missing = new ArrayList<>();
+                    for (int i = 0; i < requested.size(); i++) {
+                        T value = tryRead(values.get(i), type);
+                        if (value != null) {
+                            hits.add(value);
+                            nearCache.put(region, requested.get(i), value);
+                        } else {
+                            missing.add(requested.get(i));
+                        }
+                    }
+                    stats.hit(region, hits.size());
+                    stats.miss(region, missing.size());
+
+                    Flux<T> loaded = missing.isEmpty()
+                            ? Flux.empty()
+                            : ReplicaRoutingConnectionFactory.onPrimary(loader.apply(missing.toArray(UUID[]::new)))
+                                    .flatMap(value -> {
+                                        UUID id = idOf.apply(value);
+                                        return fill(region, id, key(region, id), value).thenReturn(value);
+                                    });
+                    return Flux.concat(Flux.fromIterable(hits), loaded);
+                });
+        return Flux.concat(Flux.fromIterable(local), remote);
+    }
+
+    /**
+     * Write-through: stores the freshly saved value in Redis, invalidates the near
+     * tier of every instance and returns the value.
+     */
+    public <T> Mono<T> put(CacheRegion region, UUID id, T value) {
+        if (!enabled) {
+            return Mono.just(value);
+        }
+        return write(region, key(region, id), value)
+                .then(nearCache.broadcastInvalidation(region, id))
+                .thenReturn(value);
+    }
+
+    public Mono<Void> evict(CacheRegion region, UUID id) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        String key = key(region, id);
+        return redis.delete(key)
+                .onErrorResume(e -> {
+                    stats.error(region);
+                    log.warn("Cache eviction failed for {}: {}", key, e.getMessage());
+                    return Mono.just(0L);
+                })
+                .then(nearCache.broadcastInvalidation(region, id));
+    }
+
+    /**
+     * Read-through fill: SET NX, so a write-through that landed between the load
+     * and this fill is not overwritten with the row loaded before it. The near
+     * tier only keeps the value Redis accepted; when Redis is unreachable there
+     * is nothing to race with and the value is kept locally.
+     */
+    private Mono<Void> fill(CacheRegion region, UUID id, String key, Object value) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(value))
+                .flatMap(json -> redis.opsForValue().setIfAbsent(key, json, ttls.get(region)))
+                .onErrorResume(e -> {
+                    stats.error(region);
+                    log.debug("Cache fill failed for {}: {}", key, e.getMessage());
+                    return Mono.just(true);
+                })
+                .doOnNext(stored -> {
+                    if (stored) {
+                        nearCache.put(region, id, value);
+                    }
+                })
+                .then();
+    }
+
+    private Mono<Void> write(CacheRegion region, String key, Object value) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(value))
+                .flatMap(json -> redis.opsForValue().set(key, json, ttls.get(region)))
+                .onErrorResume(e -> {
+                    stats.error(region);
+                    log.debug("Cache write failed for {}: {}", key, e.getMessage());
+                    return Mono.just(false);
+                })
+                .then();
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable cache entry", e);
+        }
+    }
+
+    private <T> T tryRead(String json, Class<T> type) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String key(CacheRegion region, UUID id) {
+        return KEY_PREFIX + region.getName() + ":" + id;
+    }
+}
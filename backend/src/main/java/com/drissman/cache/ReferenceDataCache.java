@@ -0,0 +1,88 @@
+package com.drissman.cache;
+
+import com.drissman.domain.entity.Monitor;
+import com.drissman.domain.entity.Offer;
+import com.drissman.domain.entity.School;
+import com.drissman.domain.entity.User;
+import com.drissman.domain.repository.MonitorRepository;
+import com.drissman.domain.repository.OfferRepository;
+import com.drissman.domain.repository.SchoolRepository;
+import com.drissman.domain.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Typed cached lookups for the reference entities used to enrich bookings,
+ * invoices, sessions, enrollments and reviews. Services that mutate these entities must
+ * call the matching put/evict method after saving.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+
+    private final RedisEntityCache cache;
+    private final SchoolRepository schoolRepository;
+    private final OfferRepository offerRepository;
+    private final UserRepository userRepository;
+    private final MonitorRepository monitorRepository;
+
+    public Mono<School> school(UUID id) {
+        return cache.get(CacheRegion.SCHOOLS, id, School.class, () -> schoolRepository.findById(id));
+    }
+
+    public Flux<School> schools(Collection<UUID> ids) {
+        return cache.getAll(CacheRegion.SCHOOLS, ids, School.class, School::getId, schoolRepository::findByIds);
+    }
+
+    public Mono<Offer> offer(UUID id) {
+        return cache.get(CacheRegion.OFFERS, id, Offer.class, () -> offerRepository.findById(id));
+    }
+
+    public Flux<Offer> offers(Collection<UUID> ids) {
+        return cache.getAll(CacheRegion.OFFERS, ids, Offer.class, Offer::getId, offerRepository::findByIds);
+    }
+
+    public Mono<UserSummary> user(UUID id) {
+        return cache.get(CacheRegion.USERS, id, UserSummary.class,
+                () -> userRepository.findById(id).map(UserSummary::from));
+    }
+
+    public Flux<UserSummary> users(Collection<UUID> ids) {
+        return cache.getAll(CacheRegion.USERS, ids, UserSummary.class, UserSummary::getId,
+                userIds -> userRepository.findByIds(userIds).map(UserSummary::from));
+    }
+
+    public Mono<Monitor> monitor(UUID id) {
+        return cache.get(CacheRegion.MONITORS, id, Monitor.class, () -> monitorRepository.findById(id));
+    }
+
+    public Mono<School> putSchool(School school) {
+        return cache.put(CacheRegion.SCHOOLS, school.getId(), school);
+    }
+
+    public Mono<Offer> putOffer(Offer offer) {
+        return cache.put(CacheRegion.OFFERS, offer.getId(), offer);
+    }
+
+    public Mono<Void> evictOffer(UUID id) {
+        return cache.evict(CacheRegion.OFFERS, id);
+    }
+
+    public Mono<Monitor> putMonitor(Monitor monitor) {
+        return cache.put(CacheRegion.MONITORS, monitor.getId(), monitor);
+    }
+
+    public Mono<Void> evictMonitor(UUID id) {
+        return cache.evict(CacheRegion.MONITORS, id);
+    }
+
+    public Mono<User> putUser(User user) {
+        return cache.put(CacheRegion.USERS, user.getId(), UserSummary.from(user))
+                .thenReturn(user);
+    }
+}
@@ -0,0 +1,37 @@
+package com.drissman.cache;
+
+import com.drissman.domain.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Cached projection of {@link User}. The password hash is deliberately left
+ * out so that it never leaves the database.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private UUID id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private User.Role role;
+    private UUID schoolId;
+
+    public static UserSummary from(User user) {
+        return UserSummary.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .schoolId(user.getSchoolId())
+                .build();
+    }
+}
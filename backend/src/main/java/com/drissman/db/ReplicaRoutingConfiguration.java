@@ -0,0 +1,129 @@
+package com.drissman.db;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active when {@code db.replicas.urls} lists at least one replica.
+ *
+ * Declaring a ConnectionFactory makes Spring Boot back off from its own, so
+ * the primary and every replica get a pool built here from the
+ * {@code spring.r2dbc.*} settings (credentials, driver options, pool sizes).
+ * The r2dbc-proxy decorator (statement counting) wraps the routing factory,
+ * and the pools are published under {@code r2dbc.pool.*} tagged by name.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+@ConditionalOnExpression("!'${db.replicas.urls:}'.isBlank()")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    public RoutedPools routedPools(R2dbcProperties properties, Environment env) {
+        Map<String, ConnectionPool> pools = new LinkedHashMap<>();
+        pools.put("primary", pool("primary", properties.getUrl(), properties));
+        String[] urls = StringUtils.commaDelimitedListToStringArray(env.getProperty("db.replicas.urls"));
+        for (String url : urls) {
+            if (StringUtils.hasText(url)) {
+                String name = "replica-" + (pools.size() - 1);
+                pools.put(name, pool(name, url.trim(), properties));
+            }
+        }
+        return new RoutedPools(pools);
+    }
+
+    @Bean
+    public ConnectionFactory connectionFactory(RoutedPools pools,
+            ObjectProvider<ConnectionFactoryDecorator> decorators) {
+        ConnectionFactory factory = new ReplicaRoutingConnectionFactory(pools.primary(), pools.replicas());
+        for (ConnectionFactoryDecorator decorator : decorators.orderedStream().toList()) {
+            factory = decorator.decorate(factory);
+        }
+        return factory;
+    }
+
+    @Bean
+    public ReplicaRoutingWebFilter replicaRoutingWebFilter(ReactiveStringRedisTemplate redis, Environment env) {
+        return new ReplicaRoutingWebFilter(redis, env.getProperty("db.replicas.sticky-for", Duration.class,
+                Duration.ofSeconds(5)));
+    }
+
+    @Bean
+    public MeterBinder routedPoolMetrics(RoutedPools pools) {
+        return registry -> pools.pools.forEach((name, pool) ->
+                new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(registry));
+    }
+
+    private static ConnectionPool pool(String name, String url, R2dbcProperties properties) {
+        ConnectionFactory factory = ConnectionFactoryBuilder.withUrl(url)
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .configure(options -> properties.getProperties()
+                        .forEach((key, value) -> options.option(Option.valueOf(key), value)))
+                .build();
+        R2dbcProperties.Pool settings = properties.getPool();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(factory).name(name);
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(settings.getInitialSize()).to(builder::initialSize);
+        map.from(settings.getMaxSize()).to(builder::maxSize);
+        map.from(settings.getMinIdle()).to(builder::minIdle);
+        map.from(settings.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(settings.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(settings.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(settings.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(settings.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(settings.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(settings.getValidationDepth()).to(builder::validationDepth);
+        return new ConnectionPool(builder.build());
+    }
+
+    /**
+     * The primary pool followed by the replica pools, closed with the context.
+     */
+    public static class RoutedPools implements DisposableBean {
+
+        private final Map<String, ConnectionPool> pools;
+
+        RoutedPools(Map<String, ConnectionPool> pools) {
+            this.pools = pools;
+        }
+
+        ConnectionPool primary() {
+            return pools.get("primary");
+        }
+
+        List<ConnectionFactory> replicas() {
+            List<ConnectionFactory> replicas = new ArrayList<>(pools.values());
+            replicas.remove(0);
+            return replicas;
+        }
+
+        @Override
+        public void destroy() {
+            pools.values().forEach(ConnectionPool::dispose);
+        }
+    }
+}
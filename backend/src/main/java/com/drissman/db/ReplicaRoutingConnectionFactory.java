@@ -0,0 +1,87 @@
+package com.drissman.db;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of reads marked by {@link ReplicaRoutingWebFilter} to
+ * the replicas in turn and everything else (writes, transactions of mutating
+ * requests, schedulers) to the primary. A replica that cannot hand out a
+ * connection is skipped for that read, which then runs on the primary.
+ *
+ * Loads whose result outlives the request (the shared caches) go through
+ * {@link #onPrimary(Mono)}: a row read from a lagging replica right after a
+ * write would otherwise be cached again until its TTL.
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    static final String READ_FROM_REPLICA = "db.read-from-replica";
+
+    private static final String PRIMARY = "primary";
+
+    private final ConnectionFactory primary;
+    private final int replicaCount;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingConnectionFactory(ConnectionFactory primary, List<ConnectionFactory> replicas) {
+        this.primary = primary;
+        this.replicaCount = replicas.size();
+        Map<String, ConnectionFactory> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(replicaKey(i), replicas.get(i));
+        }
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.just(context.getOrDefault(READ_FROM_REPLICA, false)
+                ? replicaKey(Math.floorMod(next.getAndIncrement(), replicaCount))
+                : PRIMARY));
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            if (!context.getOrDefault(READ_FROM_REPLICA, false)) {
+                return super.create();
+            }
+            return super.create()
+                    .onErrorResume(e -> {
+                        log.warn("Replica unavailable, reading from the primary: {}", e.getMessage());
+                        return Mono.from(primary.create());
+                    });
+        });
+    }
+
+    /**
+     * Runs {@code source} on the primary, even within a read marked for the replicas.
+     */
+    public static <T> Mono<T> onPrimary(Mono<T> source) {
+        return source.contextWrite(context -> context.put(READ_FROM_REPLICA, false));
+    }
+
+    /**
+     * Flux variant of {@link #onPrimary(Mono)}.
+     */
+    public static <T> Flux<T> onPrimary(Flux<T> source) {
+        return source.contextWrite(context -> context.put(READ_FROM_REPLICA, false));
+    }
+
+    private static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+}
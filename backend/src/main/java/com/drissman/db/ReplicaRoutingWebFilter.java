@@ -0,0 +1,97 @@
+package com.drissman.db;
+
+import com.drissman.security.AuthenticatedUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Marks GET and HEAD requests as reads that may be served by a replica.
+ *
+ * Read-your-writes: a successful mutating request records the time of the
+ * user's last write in Redis, and that user's reads stay on the primary for
+ * {@code db.replicas.sticky-for}, which must exceed the replication lag. The
+ * record is keyed by the authenticated user rather than held by the client, so
+ * it also covers bearer-token clients that keep no cookies, and every instance
+ * sees it. Anonymous reads may always use a replica; when Redis cannot answer,
+ * the read goes to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingWebFilter implements WebFilter {
+
+    static final String LAST_WRITE_PREFIX = "drissman:db:last-write:";
+
+    private final ReactiveStringRedisTemplate redis;
+    private final Duration stickyFor;
+
+    public ReplicaRoutingWebFilter(ReactiveStringRedisTemplate redis, Duration stickyFor) {
+        this.redis = redis;
+        this.stickyFor = stickyFor;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) {
+            return userId(exchange)
+                    .flatMap(this::wroteRecently)
+                    .defaultIfEmpty(false)
+                    .flatMap(sticky -> sticky
+                            ? chain.filter(exchange)
+                            : chain.filter(exchange).contextWrite(context ->
+                                    context.put(ReplicaRoutingConnectionFactory.READ_FROM_REPLICA, true)));
+        }
+        if (!HttpMethod.OPTIONS.equals(method)) {
+            ServerHttpResponse response = exchange.getResponse();
+            // Recorded before the response leaves, so the client's next read already sees it
+            response.beforeCommit(() -> response.getStatusCode() == null
+                    || response.getStatusCode().is2xxSuccessful()
+                    ? userId(exchange).flatMap(this::recordWrite)
+                    : Mono.empty());
+        }
+        return chain.filter(exchange);
+    }
+
+    private static Mono<UUID> userId(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .mapNotNull(principal -> principal instanceof Authentication authentication
+                        && authentication.getPrincipal() instanceof AuthenticatedUser user
+                        ? user.userId()
+                        : null);
+    }
+
+    private Mono<Boolean> wroteRecently(UUID user) {
+        return redis.opsForValue().get(LAST_WRITE_PREFIX + user)
+                .map(writtenAt -> {
+                    try {
+                        return Long.parseLong(writtenAt) + stickyFor.toMillis() > System.currentTimeMillis();
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                })
+                .defaultIfEmpty(false)
+                .onErrorResume(e -> {
+                    log.debug("Last write of {} unknown, reading from the primary: {}", user, e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    private Mono<Void> recordWrite(UUID user) {
+        return redis.opsForValue()
+                .set(LAST_WRITE_PREFIX + user, String.valueOf(System.currentTimeMillis()), stickyFor)
+                .onErrorResume(e -> {
+                    log.warn("Could not record the last write of {}: {}", user, e.getMessage());
+                    return Mono.just(false);
+                })
+                .then();
+    }
+}
@@ -45,6 +45,7 @@ public class Enrollment {
     @Column("hours_purchased")
     private Integer hoursPurchased;
 
+    // Hours of the sessions that are not cancelled, taken when they are scheduled
     @Column("hours_consumed")
     @Builder.Default
     private Integer hoursConsumed = 0;
@@ -0,0 +1,47 @@
+package com.drissman.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    private UUID id;
+
+    // SHA-256 (hex) of the opaque token; the token itself is never stored
+    @Column("token_hash")
+    private String tokenHash;
+
+    @Column("user_id")
+    private UUID userId;
+
+    // All the tokens descending from one login by rotation
+    @Column("family_id")
+    private UUID familyId;
+
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    // Set when the token is exchanged for the next one of its family
+    @Column("used_at")
+    private LocalDateTime usedAt;
+
+    @Column("revoked_at")
+    private LocalDateTime revokedAt;
+}
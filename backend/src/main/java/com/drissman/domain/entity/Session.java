@@ -33,6 +33,9 @@ public class Session {
     @Column("enrollment_id")
     private UUID enrollmentId;
 
+    @Column("school_id")
+    private UUID schoolId; // Copied from the enrollment
+
     @Column("monitor_id")
     private UUID monitorId; // Can be null if not yet assigned
 
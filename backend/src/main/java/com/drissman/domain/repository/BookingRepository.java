@@ -1,10 +1,13 @@
 package com.drissman.domain.repository;
 
 import com.drissman.domain.entity.Booking;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface BookingRepository extends ReactiveCrudRepository<Booking, UUID> {
@@ -13,4 +16,16 @@ public interface BookingRepository extends ReactiveCrudRepository<Booking, UUID>
     Flux<Booking> findBySchoolId(UUID schoolId);
 
     Mono<Boolean> existsByUserIdAndSchoolIdAndStatus(UUID userId, UUID schoolId, Booking.BookingStatus status);
+
+    // Keyset pages ordered by created_at DESC, id DESC, starting after (createdAt, id)
+    @Query("SELECT * FROM bookings WHERE user_id = :userId AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<Booking> findPageByUserId(UUID userId, LocalDateTime createdAt, UUID id, int limit);
+
+    @Query("SELECT * FROM bookings WHERE school_id = :schoolId AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<Booking> findPageBySchoolId(UUID schoolId, LocalDateTime createdAt, UUID id, int limit);
+
+    // Compare-and-set status transition; 0 rows when the status was changed concurrently
+    @Modifying
+    @Query("UPDATE bookings SET status = :status WHERE id = :id AND status = :expected")
+    Mono<Integer> updateStatus(UUID id, String expected, String status);
 }
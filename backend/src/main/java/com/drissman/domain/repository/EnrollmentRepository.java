@@ -1,10 +1,13 @@
 package com.drissman.domain.repository;
 
 import com.drissman.domain.entity.Enrollment;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface EnrollmentRepository extends ReactiveCrudRepository<Enrollment, UUID> {
@@ -18,4 +21,17 @@ public interface EnrollmentRepository extends ReactiveCrudRepository<Enrollment,
     Mono<Enrollment> findByUserIdAndOfferId(UUID userId, UUID offerId);
 
     Mono<Boolean> existsByUserIdAndOfferIdAndStatus(UUID userId, UUID offerId, Enrollment.EnrollmentStatus status);
+
+    // Keyset page ordered by created_at DESC, id DESC, starting after (createdAt, id)
+    @Query("SELECT * FROM enrollments WHERE school_id = :schoolId AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<Enrollment> findPageBySchoolId(UUID schoolId, LocalDateTime createdAt, UUID id, int limit);
+
+    // Atomic hour accounting: 0 rows when the enrollment has fewer than :hours left
+    @Modifying
+    @Query("UPDATE enrollments SET hours_consumed = hours_consumed + :hours WHERE id = :id AND hours_purchased - hours_consumed >= :hours")
+    Mono<Integer> consumeHours(UUID id, int hours);
+
+    @Modifying
+    @Query("UPDATE enrollments SET hours_consumed = GREATEST(hours_consumed - :hours, 0) WHERE id = :id")
+    Mono<Integer> releaseHours(UUID id, int hours);
 }
@@ -1,14 +1,26 @@
 package com.drissman.domain.repository;
 
 import com.drissman.domain.entity.Invoice;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface InvoiceRepository extends ReactiveCrudRepository<Invoice, UUID> {
     Flux<Invoice> findByUserId(UUID userId);
 
     Mono<Invoice> findByBookingId(UUID bookingId);
+
+    // Keyset page of the invoices of a school's bookings, ordered by created_at DESC, id DESC
+    @Query("SELECT * FROM invoices WHERE school_id = :schoolId AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<Invoice> findPageBySchoolId(UUID schoolId, LocalDateTime createdAt, UUID id, int limit);
+
+    // Pays an invoice once; 0 rows when it was already PAID (retried or concurrent payment)
+    @Modifying
+    @Query("UPDATE invoices SET status = 'PAID', payment_method = :paymentMethod, payment_reference = :reference, paid_at = :paidAt WHERE id = :id AND status <> 'PAID'")
+    Mono<Integer> markPaid(UUID id, String paymentMethod, String reference, LocalDateTime paidAt);
 }
@@ -1,6 +1,7 @@
 package com.drissman.domain.repository;
 
 import com.drissman.domain.entity.Offer;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 
@@ -8,4 +9,7 @@ import java.util.UUID;
 
 public interface OfferRepository extends ReactiveCrudRepository<Offer, UUID> {
     Flux<Offer> findBySchoolId(UUID schoolId);
+
+    @Query("SELECT * FROM offers WHERE id = ANY(:ids)")
+    Flux<Offer> findByIds(UUID[] ids);
 }
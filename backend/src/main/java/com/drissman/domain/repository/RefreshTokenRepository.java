@@ -0,0 +1,41 @@
+package com.drissman.domain.repository;
+
+import com.drissman.domain.entity.RefreshToken;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends ReactiveCrudRepository<RefreshToken, UUID> {
+    Mono<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Marks the token used if it is still valid; empty when it is unknown,
+     * expired, revoked or already used (also when two refreshes race).
+     */
+    @Query("UPDATE refresh_tokens SET used_at = :now WHERE token_hash = :tokenHash AND used_at IS NULL AND revoked_at IS NULL AND expires_at > :now RETURNING *")
+    Mono<RefreshToken> rotate(String tokenHash, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE refresh_tokens SET revoked_at = :now WHERE family_id = :familyId AND revoked_at IS NULL")
+    Mono<Integer> revokeFamily(UUID familyId, LocalDateTime now);
+
+    /**
+     * Revokes the unused successor of a token exchanged at {@code usedAt}, if
+     * that exchange is still the latest of the family.
+     */
+    @Modifying
+    @Query("UPDATE refresh_tokens SET revoked_at = :now WHERE family_id = :familyId AND used_at IS NULL AND revoked_at IS NULL AND NOT EXISTS (SELECT 1 FROM refresh_tokens later WHERE later.family_id = :familyId AND later.used_at > :usedAt)")
+    Mono<Integer> revokeSuccessor(UUID familyId, LocalDateTime usedAt, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE refresh_tokens SET revoked_at = :now WHERE user_id = :userId AND revoked_at IS NULL")
+    Mono<Integer> revokeUser(UUID userId, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE expires_at < :before")
+    Mono<Integer> deleteExpired(LocalDateTime before);
+}
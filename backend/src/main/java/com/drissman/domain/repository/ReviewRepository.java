@@ -6,6 +6,7 @@ import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface ReviewRepository extends ReactiveCrudRepository<Review, UUID> {
@@ -20,4 +21,8 @@ public interface ReviewRepository extends ReactiveCrudRepository<Review, UUID> {
 
     @Query("SELECT COUNT(*) FROM reviews WHERE school_id = :schoolId")
     Mono<Long> countBySchoolId(UUID schoolId);
+
+    // Keyset page ordered by created_at DESC, id DESC, starting after (createdAt, id)
+    @Query("SELECT * FROM reviews WHERE school_id = :schoolId AND (created_at, id) < (:createdAt, :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<Review> findPageBySchoolId(UUID schoolId, LocalDateTime createdAt, UUID id, int limit);
 }
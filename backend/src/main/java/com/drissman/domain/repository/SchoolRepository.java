@@ -12,4 +12,7 @@ public interface SchoolRepository extends ReactiveCrudRepository<School, UUID> {
 
     @Query("SELECT * FROM schools WHERE city ILIKE :city ORDER BY rating DESC")
     Flux<School> findByCityOrderByRatingDesc(String city);
+
+    @Query("SELECT * FROM schools WHERE id = ANY(:ids)")
+    Flux<School> findByIds(UUID[] ids);
 }
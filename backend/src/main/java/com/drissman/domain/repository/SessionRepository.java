@@ -1,8 +1,11 @@
 package com.drissman.domain.repository;
 
 import com.drissman.domain.entity.Session;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -18,4 +21,18 @@ public interface SessionRepository extends ReactiveCrudRepository<Session, UUID>
     Flux<Session> findByEnrollmentIdAndStatus(UUID enrollmentId, Session.SessionStatus status);
 
     Flux<Session> findByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    // Sessions of all enrollments of a student on one day
+    @Query("SELECT s.* FROM sessions s JOIN enrollments e ON e.id = s.enrollment_id WHERE e.user_id = :userId AND s.date = :date")
+    Flux<Session> findByStudentIdAndDate(UUID userId, LocalDate date);
+
+    // Compare-and-set status transition; 0 rows when the status was changed concurrently
+    @Modifying
+    @Query("UPDATE sessions SET status = :status WHERE id = :id AND status = :expected")
+    Mono<Integer> updateStatus(UUID id, String expected, String status);
+
+    // Compare-and-set delete; 0 rows when the status was changed or the session deleted concurrently
+    @Modifying
+    @Query("DELETE FROM sessions WHERE id = :id AND status = :expected")
+    Mono<Integer> deleteIfStatus(UUID id, String expected);
 }
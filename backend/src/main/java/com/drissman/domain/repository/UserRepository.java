@@ -1,7 +1,9 @@
 package com.drissman.domain.repository;
 
 import com.drissman.domain.entity.User;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
@@ -10,4 +12,7 @@ public interface UserRepository extends ReactiveCrudRepository<User, UUID> {
     Mono<User> findByEmail(String email);
 
     Mono<Boolean> existsByEmail(String email);
+
+    @Query("SELECT * FROM users WHERE id = ANY(:ids)")
+    Flux<User> findByIds(UUID[] ids);
 }
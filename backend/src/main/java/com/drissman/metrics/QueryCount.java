@@ -0,0 +1,35 @@
+package com.drissman.metrics;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Statements executed on behalf of one HTTP request, stored in the Reactor
+ * Context of the request by {@link QueryCountWebFilter}.
+ */
+public class QueryCount {
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final Map<String, AtomicInteger> bySql = new ConcurrentHashMap<>();
+
+    public void record(String sql) {
+        total.incrementAndGet();
+        bySql.computeIfAbsent(sql, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public int total() {
+        return total.get();
+    }
+
+    /**
+     * The statement executed the most times, which is where an N+1 shows up.
+     */
+    public Optional<Map.Entry<String, Integer>> mostRepeated() {
+        return bySql.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().get()))
+                .max(Comparator.comparingInt(Map.Entry::getValue));
+    }
+}
@@ -0,0 +1,21 @@
+package com.drissman.metrics;
+
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryCountConfiguration {
+
+    /**
+     * Wraps the auto-configured connection factory in an r2dbc-proxy that
+     * reports every statement to the listener.
+     */
+    @Bean
+    public ConnectionFactoryDecorator queryCountConnectionFactoryDecorator(QueryCountListener listener) {
+        return connectionFactory -> ProxyConnectionFactory.builder(connectionFactory)
+                .listener(listener)
+                .build();
+    }
+}
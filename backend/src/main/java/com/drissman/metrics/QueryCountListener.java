@@ -0,0 +1,29 @@
+package com.drissman.metrics;
+
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import org.springframework.stereotype.Component;
+import reactor.util.context.ContextView;
+
+/**
+ * Adds every statement sent through the proxied connection factory to the
+ * {@link QueryCount} of the request being served, found in the Reactor
+ * Context that r2dbc-proxy hands to listeners. Statements issued outside a
+ * request (schedulers, startup) are ignored.
+ */
+@Component
+public class QueryCountListener implements ProxyExecutionListener {
+
+    @Override
+    public void beforeQuery(QueryExecutionInfo execInfo) {
+        ContextView context = execInfo.getValueStore().get(ContextView.class, ContextView.class);
+        if (context == null || !context.hasKey(QueryCount.class)) {
+            return;
+        }
+        QueryCount count = context.get(QueryCount.class);
+        for (QueryInfo query : execInfo.getQueries()) {
+            count.record(query.getQuery());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.drissman.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the statements each request executes (see {@link QueryCountListener})
+ * and reports requests over budget.
+ *
+ * A request running more than {@code query.budget.max-statements} statements,
+ * or one statement more than {@code query.budget.max-repeats} times (the N+1
+ * signature), is logged with its most repeated statement. With
+ * {@code query.budget.fail} (meant for tests) a request already over budget
+ * when its response is committed fails instead; with
+ * {@code query.budget.header} (dev profile) the count is returned in
+ * {@value #HEADER}.
+ */
+@Component
+@Slf4j
+public class QueryCountWebFilter implements WebFilter, Ordered {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private final boolean enabled;
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final boolean fail;
+    private final boolean header;
+
+    public QueryCountWebFilter(Environment environment) {
+        this.enabled = environment.getProperty("query.budget.enabled", Boolean.class, true);
+        this.maxStatements = environment.getProperty("query.budget.max-statements", Integer.class, 20);
+        this.maxRepeats = environment.getProperty("query.budget.max-repeats", Integer.class, 5);
+        this.fail = environment.getProperty("query.budget.fail", Boolean.class, false);
+        this.header = environment.getProperty("query.budget.header", Boolean.class, false);
+    }
+
+    @Override
+    public int getOrder() {
+        // Outermost, so that statements of the security filters are counted too
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        QueryCount count = new QueryCount();
+        if (header || fail) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.beforeCommit(() -> {
+                if (header) {
+                    response.getHeaders().set(HEADER, String.valueOf(count.total()));
+                }
+                if (fail && overBudget(count)) {
+                    return Mono.error(new IllegalStateException("Budget de requêtes SQL dépassé pour "
+                            + describe(exchange.getRequest()) + " (" + count.total() + " requêtes)"));
+                }
+                return Mono.empty();
+            });
+        }
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(QueryCount.class, count))
+                .doFinally(signal -> report(exchange.getRequest(), count));
+    }
+
+    private boolean overBudget(QueryCount count) {
+        return count.total() > maxStatements
+                || count.mostRepeated().map(entry -> entry.getValue() > maxRepeats).orElse(false);
+    }
+
+    private void report(ServerHttpRequest request, QueryCount count) {
+        if (!overBudget(count)) {
+            return;
+        }
+        count.mostRepeated().ifPresent(entry -> log.warn(
+                "{} executed {} statements (budget {}); most repeated ({}x, limit {}): {}",
+                describe(request), count.total(), maxStatements, entry.getValue(), maxRepeats, entry.getKey()));
+    }
+
+    private static String describe(ServerHttpRequest request) {
+        return request.getMethod() + " " + request.getPath().value();
+    }
+}
@@ -0,0 +1,103 @@
+package com.drissman.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every call of the application's R2DBC repositories and of the
+ * DatabaseClient read models of {@code com.drissman.service.query}.
+ *
+ * A reactive method returns before the query runs, so the timer starts when
+ * the result is subscribed and stops when it completes, fails or is
+ * cancelled; for a Flux this includes the time the caller takes to consume
+ * the rows. Timers are tagged with the component, the method and the outcome.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    static final String METRIC_NAME = "drissman.repository.invocations";
+
+    private static final String QUERY_PACKAGE = "com.drissman.service.query";
+
+    // Resolved lazily: post-processors are created before the registry
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        String component = componentName(bean);
+        if (component == null) {
+            return bean;
+        }
+        MethodInterceptor interceptor = invocation -> timed(component, invocation);
+        // Repositories are already proxies: time the whole call as their outermost advice
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    private static String componentName(Object bean) {
+        if (bean instanceof Repository<?, ?>) {
+            for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+                if (Repository.class.isAssignableFrom(type) && type.getName().startsWith("com.drissman.")) {
+                    return type.getSimpleName();
+                }
+            }
+            return null;
+        }
+        Class<?> type = ClassUtils.getUserClass(bean);
+        return QUERY_PACKAGE.equals(type.getPackageName()) ? type.getSimpleName() : null;
+    }
+
+    private Object timed(String component, MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String method = invocation.getMethod().getName();
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry.getObject());
+                return mono
+                        .doOnSuccess(value -> stop(sample, component, method, "SUCCESS", null))
+                        .doOnError(e -> stop(sample, component, method, "ERROR", e))
+                        .doOnCancel(() -> stop(sample, component, method, "CANCELLED", null));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry.getObject());
+                return flux
+                        .doOnComplete(() -> stop(sample, component, method, "SUCCESS", null))
+                        .doOnError(e -> stop(sample, component, method, "ERROR", e))
+                        .doOnCancel(() -> stop(sample, component, method, "CANCELLED", null));
+            });
+        }
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String component, String method, String outcome, Throwable error) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Time from subscription to completion of repository and read model calls")
+                .tag("repository", component)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("exception", error != null ? error.getClass().getSimpleName() : "none")
+                .register(meterRegistry.getObject()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.drissman.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Principal of a request authenticated by a JWT, built from the token claims
+ * alone. Its name is the user ID, so handlers taking a plain
+ * {@link Principal} keep working; handlers that need the role or the school
+ * take it with {@code @AuthenticationPrincipal AuthenticatedUser}.
+ *
+ * The school is the one assigned when the token was issued; a change of
+ * assignment revokes the user's tokens, and the client fetches a new one from
+ * {@code POST /api/auth/token} or logs in again.
+ * The token ID and expiry identify the token to revoke on logout; the issue
+ * time tells whether it predates a revocation of all the user's tokens.
+ */
+public record AuthenticatedUser(UUID userId, String role, UUID schoolId, String tokenId, Instant issuedAt,
+        Instant expiresAt) implements Principal {
+
+    static final String ROLE_CLAIM = "role";
+    static final String SCHOOL_CLAIM = "schoolId";
+
+    public static AuthenticatedUser from(Claims claims) {
+        String schoolId = claims.get(SCHOOL_CLAIM, String.class);
+        return new AuthenticatedUser(
+                UUID.fromString(claims.getSubject()),
+                claims.get(ROLE_CLAIM, String.class),
+                schoolId != null ? UUID.fromString(schoolId) : null,
+                claims.getId(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+}
@@ -12,7 +12,6 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import io.jsonwebtoken.Claims;
 import java.util.List;
 
 @Component
@@ -21,26 +20,33 @@ import java.util.List;
 public class JwtAuthenticationFilter implements WebFilter {
 
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String token = resolveToken(exchange);
         if (token != null) {
             try {
-                Claims claims = tokenProvider.validateToken(token);
-                String userId = claims.getSubject();
-                String role = claims.get("role", String.class);
+                AuthenticatedUser user = AuthenticatedUser.from(tokenProvider.validateToken(token));
 
                 // Build authorities from JWT role claim
-                List<SimpleGrantedAuthority> authorities = role != null
-                        ? List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                List<SimpleGrantedAuthority> authorities = user.role() != null
+                        ? List.of(new SimpleGrantedAuthority("ROLE_" + user.role()))
                         : List.of();
 
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userId,
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user,
                         null, authorities);
 
-                return chain.filter(exchange)
-                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+                // Revoked tokens (logout) continue unauthenticated, like invalid ones
+                return tokenRevocationService.isRevoked(user)
+                        .flatMap(revoked -> {
+                            if (revoked) {
+                                log.warn("Revoked JWT presented for user {}", user.getName());
+                                return chain.filter(exchange);
+                            }
+                            return chain.filter(exchange)
+                                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+                        });
             } catch (Exception e) {
                 log.warn("JWT validation failed: {}", e.getMessage());
                 // Continue without authentication — security rules will deny if needed
@@ -1,13 +1,21 @@
 package com.drissman.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.UUID;
 
@@ -16,38 +24,102 @@ public class JwtTokenProvider {
 
     private final SecretKey secretKey;
     private final long expiration;
+    private final JwtParser parser;
+
+    // Claims of tokens already verified, keyed by the SHA-256 of the token and
+    // evicted at the token's exp; absent when jwt.claims-cache.max-size is 0
+    private final Cache<ByteBuffer, Claims> verifiedClaims;
 
     public JwtTokenProvider(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration}") long expiration) {
+            @Value("${jwt.expiration}") long expiration,
+            @Value("${jwt.claims-cache.max-size:10000}") long claimsCacheSize) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expiration = expiration;
+        this.parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        this.verifiedClaims = claimsCacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(claimsCacheSize)
+                        .expireAfter(new UntilTokenExpiry())
+                        .build()
+                : null;
     }
 
-    public String generateToken(UUID userId, String email, String role) {
+    public String generateToken(UUID userId, String role, UUID schoolId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userId.toString())
-                .claim("email", email)
-                .claim("role", role)
+                .claim(AuthenticatedUser.ROLE_CLAIM, role)
+                // Omitted (null) for users without a school
+                .claim(AuthenticatedUser.SCHOOL_CLAIM, schoolId != null ? schoolId.toString() : null)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(secretKey)
                 .compact();
     }
 
+    public long getExpiration() {
+        return expiration;
+    }
+
     public Claims validateToken(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (verifiedClaims == null) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+        ByteBuffer key = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims != null) {
+            // Eviction at exp is not instantaneous
+            if (claims.getExpiration() != null && !claims.getExpiration().after(new Date())) {
+                verifiedClaims.invalidate(key);
+                throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration());
+            }
+            return claims;
+        }
+        // Invalid tokens throw here and are never cached
+        claims = parser.parseSignedClaims(token).getPayload();
+        verifiedClaims.put(key, claims);
+        return claims;
     }
 
     public UUID getUserIdFromToken(String token) {
         Claims claims = validateToken(token);
         return UUID.fromString(claims.getSubject());
     }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class UntilTokenExpiry implements Expiry<ByteBuffer, Claims> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(0, remainingMillis) * 1_000_000;
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
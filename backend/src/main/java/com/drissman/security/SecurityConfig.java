@@ -2,19 +2,24 @@ package com.drissman.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import com.drissman.metrics.QueryCountWebFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 
+import java.net.InetSocketAddress;
 import java.util.List;
 
 @Configuration
@@ -23,6 +28,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final Environment environment;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -39,6 +45,8 @@ public class SecurityConfig {
                         // Public endpoints — no auth required
                         .pathMatchers("/api/auth/**").permitAll()
                         .pathMatchers("/api/health").permitAll()
+                        .matchers(onManagementPort(HttpMethod.GET, "/actuator/health/**", "/actuator/prometheus"))
+                        .permitAll()
                         .pathMatchers(HttpMethod.GET, "/api/schools/**").permitAll()
                         .pathMatchers(HttpMethod.GET, "/api/reviews/**").permitAll()
                         .pathMatchers(HttpMethod.GET, "/api/offers/**").permitAll()
@@ -56,12 +64,30 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Actuator endpoints live on {@code management.server.port}, which is only
+     * reachable from the internal network; they are open there and nowhere else.
+     * The same filter chain serves both ports, hence the port check.
+     */
+    private ServerWebExchangeMatcher onManagementPort(HttpMethod method, String... paths) {
+        int managementPort = environment.getProperty("management.server.port", Integer.class, -1);
+        ServerWebExchangeMatcher pathMatcher = ServerWebExchangeMatchers.pathMatchers(method, paths);
+        return exchange -> {
+            InetSocketAddress local = exchange.getRequest().getLocalAddress();
+            return local != null && local.getPort() == managementPort
+                    ? pathMatcher.matches(exchange)
+                    : ServerWebExchangeMatcher.MatchResult.notMatch();
+        };
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOriginPatterns(List.of("*"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("*"));
+        // Lets browser clients read the cursor of paginated list responses and the dev query count
+        config.setExposedHeaders(List.of("X-Next-Cursor", QueryCountWebFilter.HEADER));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
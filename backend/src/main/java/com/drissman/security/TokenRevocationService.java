@@ -0,0 +1,270 @@
+package com.drissman.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revoked token IDs ({@code jti}), stored in Redis until the token would have
+ * expired anyway, and users whose every token issued so far is revoked
+ * (stored as the second up to which their tokens are refused, for one
+ * access-token lifetime).
+ *
+ * Each instance keeps a Bloom filter of the revoked IDs, so checking a token
+ * that was never revoked costs no I/O; only the rare filter positives are
+ * confirmed against Redis. Revocations are broadcast on a Redis channel to
+ * every instance. The filter is rebuilt from Redis when the subscription
+ * (re)starts, which covers messages missed while it was down, and every
+ * {@code auth.revocation.bloom.rebuild-interval}, which drops expired IDs.
+ *
+ * The filter is only trusted to answer "never revoked" once a rebuild has
+ * succeeded with the subscription up throughout. Until then (startup), and
+ * after a failed rebuild or a lost subscription, every token is checked
+ * against Redis.
+ *
+ * When Redis cannot answer, tokens are accepted unless the local filter lists
+ * their ID, and the lookup is counted; {@code auth.revocation.fail-closed}
+ * rejects them instead, trading availability for strict logout.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    static final String KEY_PREFIX = "drissman:auth:revoked:";
+    static final String REVOCATION_CHANNEL = "drissman:auth:revocations";
+    // Filter entry and key suffix of a user-wide revocation; token IDs are UUIDs and cannot clash
+    static final String USER_ENTRY = "user:";
+
+    private final ReactiveStringRedisTemplate redis;
+    private final boolean enabled;
+    private final boolean failClosed;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Duration tokenLifetime;
+    private final Counter filteredLookups;
+    private final Counter unfilteredLookups;
+    private final Counter uncheckedAccepted;
+    private final Counter uncheckedRejected;
+    private volatile BloomFilter revoked;
+    // Whether the filter holds every revocation still in Redis
+    private volatile boolean complete;
+    // Incremented when the subscription is lost: a rebuild that overlaps it may miss revocations
+    private final AtomicLong subscriptionLosses = new AtomicLong();
+    // Rebuild requests not served yet; the caller that takes it from 0 runs the rebuilds, one at a time
+    private final AtomicInteger rebuildRequests = new AtomicInteger();
+    // Filter of the running rebuild, so that it also receives the revocations made during its scan
+    private volatile BloomFilter rebuilding;
+    private Disposable subscription;
+
+    public TokenRevocationService(ReactiveStringRedisTemplate redis, MeterRegistry meterRegistry,
+            Environment environment) {
+        this.redis = redis;
+        this.enabled = environment.getProperty("auth.revocation.enabled", Boolean.class, true);
+        this.failClosed = environment.getProperty("auth.revocation.fail-closed", Boolean.class, false);
+        this.expectedRevocations = environment.getProperty("auth.revocation.bloom.expected-revocations",
+                Long.class, 100_000L);
+        this.falsePositiveRate = environment.getProperty("auth.revocation.bloom.false-positive-rate",
+                Double.class, 0.001);
+        this.tokenLifetime = Duration.ofMillis(environment.getProperty("jwt.expiration", Long.class, 900_000L));
+        this.filteredLookups = Counter.builder("drissman.auth.revocation.lookups")
+                .description("Tokens checked against the denylist in Redis")
+                .tag("reason", "filter-positive")
+                .register(meterRegistry);
+        this.unfilteredLookups = Counter.builder("drissman.auth.revocation.lookups")
+                .description("Tokens checked against the denylist in Redis")
+                .tag("reason", "filter-incomplete")
+                .register(meterRegistry);
+        this.uncheckedAccepted = Counter.builder("drissman.auth.revocation.unchecked")
+                .description("Tokens Redis could not check for revocation")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.uncheckedRejected = Counter.builder("drissman.auth.revocation.unchecked")
+                .description("Tokens Redis could not check for revocation")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.revoked = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /**
+     * Whether the token was revoked, by itself or with all the tokens of its
+     * user. Tokens without an ID predate revocation and are only revoked with
+     * their user.
+     */
+    public Mono<Boolean> isRevoked(AuthenticatedUser user) {
+        if (!enabled) {
+            return Mono.just(false);
+        }
+        boolean filtered = complete;
+        boolean tokenListed = user.tokenId() != null && (!filtered || revoked.mightContain(user.tokenId()));
+        boolean userListed = !filtered || revoked.mightContain(USER_ENTRY + user.userId());
+        if (!tokenListed && !userListed) {
+            return Mono.just(false);
+        }
+        (filtered ? filteredLookups : unfilteredLookups).increment();
+        Mono<Boolean> userRevoked = userListed
+                ? redis.opsForValue().get(KEY_PREFIX + USER_ENTRY + user.userId())
+                        .map(issuedUpTo -> user.issuedAt() == null
+                                || user.issuedAt().getEpochSecond() <= Long.parseLong(issuedUpTo))
+                        .defaultIfEmpty(false)
+                : Mono.just(false);
+        return (tokenListed ? redis.hasKey(KEY_PREFIX + user.tokenId()) : Mono.just(false))
+                .flatMap(tokenRevoked -> tokenRevoked ? Mono.just(true) : userRevoked)
+                .onErrorResume(e -> Mono.just(unchecked(user, e)));
+    }
+
+    public Mono<Void> revoke(String tokenId, Instant expiresAt) {
+        if (!enabled) {
+            return Mono.error(new IllegalStateException("Révocation des jetons désactivée"));
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (tokenId == null || remaining.isNegative() || remaining.isZero()) {
+            return Mono.empty();
+        }
+        remember(tokenId);
+        return redis.opsForValue().set(KEY_PREFIX + tokenId, "1", remaining)
+                .then(broadcast(tokenId));
+    }
+
+    /**
+     * Revokes every token issued to the user so far, e.g. after a change of
+     * role or school assignment: those issued up to the current second, the
+     * precision of the JWT {@code iat}. Completes once that second is over, so
+     * a token issued afterwards, like the one a reissue hands out, is valid.
+     */
+    public Mono<Void> revokeUser(UUID userId) {
+        if (!enabled) {
+            return Mono.error(new IllegalStateException("Révocation des jetons désactivée"));
+        }
+        String entry = USER_ENTRY + userId;
+        Instant now = Instant.now();
+        remember(entry);
+        return redis.opsForValue().set(KEY_PREFIX + entry, String.valueOf(now.getEpochSecond()), tokenLifetime)
+                .then(broadcast(entry))
+                .then(Mono.delay(Duration.ofNanos(1_000_000_000L - now.getNano())))
+                .then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        subscription = redis.listenToChannel(REVOCATION_CHANNEL)
+                // Revocations may have been missed before (re)subscribing
+                .doOnSubscribe(s -> rebuild().subscribe())
+                .doOnNext(message -> remember(message.getMessage()))
+                .doOnError(e -> {
+                    subscriptionLosses.incrementAndGet();
+                    complete = false;
+                    log.warn("Token revocation subscription lost: {}", e.getMessage());
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.bloom.rebuild-interval:PT1H}",
+            initialDelayString = "${auth.revocation.bloom.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild().block(Duration.ofMinutes(1));
+        }
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Replaces the filter by one holding exactly the IDs still in Redis.
+     * Requests made while a rebuild runs are served by one more rebuild after
+     * it, so two scans never fill filters at the same time.
+     */
+    Mono<Void> rebuild() {
+        return Mono.defer(() -> rebuildRequests.getAndIncrement() == 0
+                // A cancelled caller (scheduledRebuild timing out) must not leave the next requests waiting
+                ? rebuildUntilServed().doOnCancel(() -> rebuildRequests.set(0))
+                : Mono.empty());
+    }
+
+    private Mono<Void> rebuildUntilServed() {
+        int served = rebuildRequests.get();
+        return rebuildOnce()
+                .then(Mono.defer(() -> rebuildRequests.addAndGet(-served) == 0
+                        ? Mono.<Void>empty()
+                        : rebuildUntilServed()));
+    }
+
+    private Mono<Void> rebuildOnce() {
+        return Mono.defer(() -> {
+            long losses = subscriptionLosses.get();
+            BloomFilter filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+            rebuilding = filter;
+            return redis.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1_000).build())
+                    .doOnNext(key -> filter.put(key.substring(KEY_PREFIX.length())))
+                    .count()
+                    .doOnNext(count -> {
+                        revoked = filter;
+                        rebuilding = null;
+                        complete = subscriptionLosses.get() == losses;
+                        log.debug("Token revocation filter rebuilt with {} IDs", count);
+                    })
+                    .doOnError(e -> {
+                        rebuilding = null;
+                        complete = false;
+                        log.warn("Could not rebuild token revocation filter, checking every token against Redis: {}",
+                                e.getMessage());
+                    })
+                    .doOnCancel(() -> rebuilding = null)
+                    .onErrorResume(e -> Mono.empty())
+                    .then();
+        });
+    }
+
+    private Mono<Void> broadcast(String entry) {
+        return redis.convertAndSend(REVOCATION_CHANNEL, entry)
+                .onErrorResume(e -> {
+                    // The other instances pick it up at their next rebuild
+                    log.warn("Could not broadcast revocation of {}: {}", entry, e.getMessage());
+                    return Mono.just(0L);
+                })
+                .then();
+    }
+
+    // Redis did not answer: a token whose ID the filter holds is most likely revoked, others are let through
+    private boolean unchecked(AuthenticatedUser user, Throwable error) {
+        boolean rejected = failClosed || (user.tokenId() != null && revoked.mightContain(user.tokenId()));
+        (rejected ? uncheckedRejected : uncheckedAccepted).increment();
+        log.debug("Could not check token revocation, {} token: {}", rejected ? "rejecting" : "accepting",
+                error.getMessage());
+        return rejected;
+    }
+
+    private void remember(String tokenId) {
+        // Read before the current filter: a rebuild swaps the filter before clearing this
+        BloomFilter next = rebuilding;
+        revoked.put(tokenId);
+        if (next != null) {
+            next.put(tokenId);
+        }
+    }
+}
@@ -2,26 +2,34 @@ package com.drissman.service;
 
 import com.drissman.api.dto.AuthResponse;
 import com.drissman.api.dto.LoginRequest;
+import com.drissman.api.dto.RefreshRequest;
 import com.drissman.api.dto.RegisterRequest;
 import com.drissman.domain.entity.School;
 import com.drissman.domain.entity.User;
 import com.drissman.domain.repository.SchoolRepository;
 import com.drissman.domain.repository.UserRepository;
+import com.drissman.security.AuthenticatedUser;
 import com.drissman.security.JwtTokenProvider;
+import com.drissman.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
+import java.util.Objects;
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final SchoolRepository schoolRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
 
     public Mono<AuthResponse> register(RegisterRequest request) {
         return userRepository.existsByEmail(request.getEmail())
@@ -30,12 +38,7 @@ public class AuthService {
                         return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Email already exists"));
                     }
 
-                    User.Role userRole;
-                    try {
-                        userRole = User.Role.valueOf(request.getRole().toUpperCase());
-                    } catch (IllegalArgumentException | NullPointerException e) {
-                        userRole = User.Role.STUDENT; // Fallback to STUDENT if role is invalid or not yet in enum
-                    }
+                    User.Role userRole = parseRole(request.getRole());
 
                     if (userRole == User.Role.SCHOOL_ADMIN) {
                         School school = School.builder()
@@ -45,31 +48,31 @@ public class AuthService {
                                 .city("Yaoundé") // Default city
                                 .build();
 
-                        return schoolRepository.save(school)
-                                .flatMap(savedSchool -> {
-                                    User user = User.builder()
-                                            .email(request.getEmail())
-                                            .password(passwordEncoder.encode(request.getPassword()))
-                                            .firstName(request.getFirstName())
-                                            .lastName(request.getLastName())
-                                            .role(userRole)
-                                            .schoolId(savedSchool.getId())
-                                            .build();
-                                    return userRepository.save(user);
-                                })
-                                .map(this::createAuthResponse);
+                        return passwordHashingService.encode(request.getPassword())
+                                .flatMap(encodedPassword -> schoolRepository.save(school)
+                                        .flatMap(savedSchool -> {
+                                            User user = User.builder()
+                                                    .email(request.getEmail())
+                                                    .password(encodedPassword)
+                                                    .firstName(request.getFirstName())
+                                                    .lastName(request.getLastName())
+                                                    .role(userRole)
+                                                    .schoolId(savedSchool.getId())
+                                                    .build();
+                                            return userRepository.save(user);
+                                        }))
+                                .flatMap(this::createAuthResponse);
                     } else {
                         // STUDENT and VISITOR: simple user creation without school
-                        User user = User.builder()
-                                .email(request.getEmail())
-                                .password(passwordEncoder.encode(request.getPassword()))
-                                .firstName(request.getFirstName())
-                                .lastName(request.getLastName())
-                                .role(userRole)
-                                .build();
-
-                        return userRepository.save(user)
-                                .map(this::createAuthResponse);
+                        return passwordHashingService.encode(request.getPassword())
+                                .flatMap(encodedPassword -> userRepository.save(User.builder()
+                                        .email(request.getEmail())
+                                        .password(encodedPassword)
+                                        .firstName(request.getFirstName())
+                                        .lastName(request.getLastName())
+                                        .role(userRole)
+                                        .build()))
+                                .flatMap(this::createAuthResponse);
                     }
                 });
     }
@@ -77,19 +80,88 @@ public class AuthService {
     public Mono<AuthResponse> login(LoginRequest request) {
         return userRepository.findByEmail(request.getEmail())
                 .switchIfEmpty(Mono.error(new RuntimeException("Invalid credentials")))
+                .flatMap(user -> passwordHashingService.matches(request.getPassword(), user.getPassword())
+                        .flatMap(matches -> {
+                            if (!matches) {
+                                return Mono.error(new RuntimeException("Invalid credentials"));
+                            }
+                            return createAuthResponse(user);
+                        }));
+    }
+
+    /**
+     * Issues a new access token carrying the user's current role and school,
+     * for clients whose token predates a change of school assignment. The
+     * presented token is revoked. When the role or school did change, every
+     * other token of the user is revoked too and the client gets a new
+     * refresh token; otherwise it keeps its refresh token.
+     */
+    public Mono<AuthResponse> reissue(AuthenticatedUser presented) {
+        return userRepository.findById(presented.userId())
+                .switchIfEmpty(Mono.error(new RuntimeException("Utilisateur non trouvé")))
                 .flatMap(user -> {
-                    if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                        return Mono.error(new RuntimeException("Invalid credentials"));
+                    boolean reassigned = !user.getRole().name().equals(presented.role())
+                            || !Objects.equals(user.getSchoolId(), presented.schoolId());
+                    if (reassigned) {
+                        return revokeSessions(user.getId())
+                                .then(createAuthResponse(user));
                     }
-                    return Mono.just(createAuthResponse(user));
+                    return tokenRevocationService.revoke(presented.tokenId(), presented.expiresAt())
+                            .thenReturn(buildAuthResponse(user, null));
                 });
     }
 
-    private AuthResponse createAuthResponse(User user) {
+    /**
+     * Ends every session of the user: their access tokens are refused from
+     * now on and their refresh tokens can no longer be exchanged. To be called
+     * whenever a user's role or school assignment changes, since both are
+     * carried by the tokens.
+     */
+    public Mono<Void> revokeSessions(UUID userId) {
+        return tokenRevocationService.revokeUser(userId)
+                .then(refreshTokenService.revokeAll(userId));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh
+     * token; the access token reflects the user's current role and school.
+     */
+    public Mono<AuthResponse> refresh(RefreshRequest request) {
+        return refreshTokenService.rotate(request.getRefreshToken())
+                .switchIfEmpty(Mono.error(new RuntimeException("Invalid refresh token")))
+                .flatMap(rotation -> userRepository.findById(rotation.userId())
+                        .switchIfEmpty(Mono.error(new RuntimeException("Utilisateur non trouvé")))
+                        .map(user -> buildAuthResponse(user, rotation.refreshToken())));
+    }
+
+    /**
+     * Revokes the access token the caller authenticated with until it expires
+     * and, when given, the refresh token family of the session.
+     */
+    public Mono<Void> logout(AuthenticatedUser user, String refreshToken) {
+        Mono<Void> refresh = refreshToken != null ? refreshTokenService.revoke(refreshToken) : Mono.empty();
+        return tokenRevocationService.revoke(user.tokenId(), user.expiresAt())
+                .then(refresh);
+    }
+
+    private static User.Role parseRole(String role) {
+        try {
+            return User.Role.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return User.Role.STUDENT; // Fallback to STUDENT if role is invalid or not yet in enum
+        }
+    }
+
+    private Mono<AuthResponse> createAuthResponse(User user) {
+        return refreshTokenService.issue(user.getId())
+                .map(refreshToken -> buildAuthResponse(user, refreshToken));
+    }
+
+    private AuthResponse buildAuthResponse(User user, String refreshToken) {
         String token = jwtTokenProvider.generateToken(
                 user.getId(),
-                user.getEmail(),
-                user.getRole().name());
+                user.getRole().name(),
+                user.getSchoolId());
 
         return AuthResponse.builder()
                 .user(AuthResponse.UserDto.builder()
@@ -101,6 +173,8 @@ public class AuthService {
                         .schoolId(user.getSchoolId())
                         .build())
                 .token(token)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtTokenProvider.getExpiration() / 1_000)
                 .build();
     }
 }
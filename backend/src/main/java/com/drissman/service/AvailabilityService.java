@@ -16,6 +16,7 @@ import java.util.UUID;
 public class AvailabilityService {
 
     private final AvailabilityRepository availabilityRepository;
+    private final SlotService slotService;
 
     public Mono<AvailabilityDto> create(CreateAvailabilityRequest request) {
         Availability availability = Availability.builder()
@@ -27,6 +28,7 @@ public class AvailabilityService {
                 .build();
 
         return availabilityRepository.save(availability)
+                .doOnNext(saved -> slotService.invalidate(saved.getSchoolId()))
                 .map(this::toDto);
     }
 
@@ -44,11 +46,14 @@ public class AvailabilityService {
                     availability.setMaxBookings(request.getMaxBookings());
                     return availabilityRepository.save(availability);
                 })
+                .doOnNext(saved -> slotService.invalidate(saved.getSchoolId()))
                 .map(this::toDto);
     }
 
     public Mono<Void> delete(UUID id) {
-        return availabilityRepository.deleteById(id);
+        return availabilityRepository.findById(id)
+                .flatMap(availability -> availabilityRepository.deleteById(id)
+                        .doOnSuccess(done -> slotService.invalidate(availability.getSchoolId())));
     }
 
     private AvailabilityDto toDto(Availability a) {
@@ -2,6 +2,8 @@ package com.drissman.service;
 
 import com.drissman.api.dto.BookingDto;
 import com.drissman.api.dto.CreateBookingRequest;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.domain.entity.Booking;
 import com.drissman.domain.entity.Invoice;
 import com.drissman.domain.repository.BookingRepository;
@@ -10,6 +12,7 @@ import com.drissman.domain.repository.OfferRepository;
 import com.drissman.service.mapper.BookingMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -23,10 +26,13 @@ public class BookingService {
 
         private final BookingRepository bookingRepository;
         private final OfferRepository offerRepository;
-        private final InvoiceService invoiceService;
         private final InvoiceRepository invoiceRepository;
         private final BookingMapper bookingMapper;
+        private final SchoolStatsService schoolStatsService;
+        private final SlotService slotService;
+        private final SlotAdmissionService slotAdmissionService;
 
+        @Transactional
         public Mono<BookingDto> create(UUID userId, CreateBookingRequest request) {
                 Booking booking = Booking.builder()
                                 .userId(userId)
@@ -37,44 +43,115 @@ public class BookingService {
                                 .status(Booking.BookingStatus.PENDING)
                                 .build();
 
-                // Just save the booking - NO invoice created yet
-                // Invoice will be created when school confirms
-                return bookingRepository.save(booking)
+                // Admission and insert commit together: a failed save leaves no place taken.
+                // NO invoice created yet: it will be created when school confirms
+                return slotAdmissionService.acquire(booking)
+                                .then(bookingRepository.save(booking))
+                                .doOnNext(saved -> slotService.onBookingChanged(saved, 1))
+                                .flatMap(saved -> schoolStatsService.recordBooking(saved)
+                                                .thenReturn(saved))
                                 .flatMap(bookingMapper::enrichWithDetails);
         }
 
         public Flux<BookingDto> findByUserId(UUID userId) {
-                return bookingRepository.findByUserId(userId)
-                                .flatMap(bookingMapper::enrichWithDetails);
+                return bookingMapper.enrichAll(bookingRepository.findByUserId(userId));
         }
 
         public Flux<BookingDto> findBySchoolId(UUID schoolId) {
-                return bookingRepository.findBySchoolId(schoolId)
-                                .flatMap(bookingMapper::enrichWithDetails);
+                return bookingMapper.enrichAll(bookingRepository.findBySchoolId(schoolId));
+        }
+
+        public Mono<CursorPage<BookingDto>> findByUserId(UUID userId, PageCursor after, int limit) {
+                return CursorPage.of(
+                                bookingRepository.findPageByUserId(userId, after.createdAt(), after.id(), limit + 1),
+                                limit, BookingService::cursorOf, bookingMapper::enrichAll);
+        }
+
+        public Mono<CursorPage<BookingDto>> findBySchoolId(UUID schoolId, PageCursor after, int limit) {
+                return CursorPage.of(
+                                bookingRepository.findPageBySchoolId(schoolId, after.createdAt(), after.id(), limit + 1),
+                                limit, BookingService::cursorOf, bookingMapper::enrichAll);
         }
 
+        @Transactional
         public Mono<BookingDto> updateStatus(UUID bookingId, Booking.BookingStatus status) {
                 return bookingRepository.findById(bookingId)
                                 .flatMap(booking -> {
-                                        booking.setStatus(status);
-                                        return bookingRepository.save(booking);
-                                })
-                                .flatMap(savedBooking -> {
-                                        // If booking is confirmed, create invoice and mark as PAID
-                                        if (status == Booking.BookingStatus.CONFIRMED) {
-                                                return offerRepository.findById(savedBooking.getOfferId())
-                                                                .flatMap(offer -> invoiceService.createForBooking(
-                                                                                savedBooking, offer.getPrice()))
-                                                                .flatMap(invoice -> {
-                                                                        invoice.setStatus(Invoice.InvoiceStatus.PAID);
-                                                                        invoice.setPaidAt(LocalDateTime.now());
-                                                                        return invoiceRepository.save(invoice);
-                                                                })
-                                                                .thenReturn(savedBooking);
+                                        Booking.BookingStatus previous = booking.getStatus();
+                                        if (previous == status) {
+                                                return Mono.just(booking);
                                         }
-                                        return Mono.just(savedBooking);
+                                        return applyStatus(booking, status)
+                                                        .flatMap(saved -> status == Booking.BookingStatus.CONFIRMED
+                                                                        ? createPaidInvoice(saved)
+                                                                        : Mono.just(saved));
                                 })
                                 .flatMap(bookingMapper::enrichWithDetails);
         }
 
+        /**
+         * Confirms the booking of an invoice that was just paid. Only a PENDING
+         * booking is confirmed by its payment; the change goes through the same
+         * compare-and-set as {@link #updateStatus}, in the caller's transaction.
+         */
+        public Mono<Booking> confirmPaid(UUID bookingId) {
+                return bookingRepository.findById(bookingId)
+                                .switchIfEmpty(Mono.error(new RuntimeException("Réservation non trouvée")))
+                                .flatMap(booking -> booking.getStatus() == Booking.BookingStatus.PENDING
+                                                ? applyStatus(booking, Booking.BookingStatus.CONFIRMED)
+                                                : Mono.error(new RuntimeException(
+                                                                "Cette réservation a déjà été confirmée ou annulée")));
+        }
+
+        // Moves the booking to its new status, keeping its slot, the slot grid and school_stats in step
+        private Mono<Booking> applyStatus(Booking booking, Booking.BookingStatus status) {
+                Booking.BookingStatus previous = booking.getStatus();
+                int slotDelta = slotDelta(previous, status);
+                booking.setStatus(status);
+                // A reinstated booking must fit in its slot again; a cancelled one frees it through its
+                // status alone
+                Mono<Void> admission = slotDelta > 0 ? slotAdmissionService.acquire(booking) : Mono.empty();
+                return admission.then(transition(booking, previous))
+                                .doOnNext(saved -> slotService.onBookingChanged(saved, slotDelta))
+                                .flatMap(saved -> schoolStatsService.recordStatusChange(saved, previous)
+                                                .thenReturn(saved));
+        }
+
+        // A confirmed booking is invoiced and marked as PAID
+        private Mono<Booking> createPaidInvoice(Booking booking) {
+                return offerRepository.findById(booking.getOfferId())
+                                .flatMap(offer -> invoiceRepository.save(Invoice.builder()
+                                                .bookingId(booking.getId())
+                                                .userId(booking.getUserId())
+                                                .schoolId(booking.getSchoolId())
+                                                .amount(offer.getPrice())
+                                                .status(Invoice.InvoiceStatus.PAID)
+                                                .paidAt(LocalDateTime.now())
+                                                .build()))
+                                .flatMap(schoolStatsService::recordRevenue)
+                                .thenReturn(booking);
+        }
+
+        /**
+         * Compare-and-set of the status: of two concurrent changes from the same
+         * status, only the first applies.
+         */
+        private Mono<Booking> transition(Booking booking, Booking.BookingStatus expected) {
+                return bookingRepository.updateStatus(booking.getId(), expected.name(),
+                                booking.getStatus().name())
+                                .flatMap(updated -> updated == 1 ? Mono.just(booking)
+                                                : Mono.error(new RuntimeException(
+                                                                "Le statut de cette réservation a déjà été modifié")));
+        }
+
+        // Cancelling a booking frees its slot, reinstating it takes the slot again
+        private static int slotDelta(Booking.BookingStatus previous, Booking.BookingStatus current) {
+                boolean held = previous != Booking.BookingStatus.CANCELLED;
+                boolean holds = current != Booking.BookingStatus.CANCELLED;
+                return held == holds ? 0 : holds ? 1 : -1;
+        }
+
+        private static PageCursor cursorOf(Booking booking) {
+                return new PageCursor(booking.getCreatedAt(), booking.getId());
+        }
 }
@@ -1,11 +1,16 @@
 package com.drissman.service;
 
+import com.drissman.api.dto.CursorPage;
 import com.drissman.api.dto.InvoiceDto;
+import com.drissman.api.dto.PageCursor;
+import com.drissman.cache.ReferenceDataCache;
 import com.drissman.domain.entity.Booking;
 import com.drissman.domain.entity.Invoice;
 import com.drissman.domain.repository.*;
+import com.drissman.service.query.PartnerExportQuery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -18,22 +23,10 @@ public class InvoiceService {
 
         private final InvoiceRepository invoiceRepository;
         private final BookingRepository bookingRepository;
-        private final SchoolRepository schoolRepository;
-        private final OfferRepository offerRepository;
-
-        /**
-         * Create invoice when booking is created
-         */
-        public Mono<Invoice> createForBooking(Booking booking, Integer amount) {
-                Invoice invoice = Invoice.builder()
-                                .bookingId(booking.getId())
-                                .userId(booking.getUserId())
-                                .amount(amount)
-                                .status(Invoice.InvoiceStatus.PENDING)
-                                .build();
-
-                return invoiceRepository.save(invoice);
-        }
+        private final BookingService bookingService;
+        private final ReferenceDataCache referenceDataCache;
+        private final SchoolStatsService schoolStatsService;
+        private final PartnerExportQuery partnerExportQuery;
 
         public Flux<InvoiceDto> findByUserId(UUID userId) {
                 return invoiceRepository.findByUserId(userId)
@@ -47,37 +40,57 @@ public class InvoiceService {
                                 .flatMap(this::enrichWithBookingInfo);
         }
 
+        public Mono<CursorPage<InvoiceDto>> findBySchoolId(UUID schoolId, PageCursor after, int limit) {
+                return CursorPage.of(
+                                invoiceRepository.findPageBySchoolId(schoolId, after.createdAt(), after.id(), limit + 1),
+                                limit, invoice -> new PageCursor(invoice.getCreatedAt(), invoice.getId()),
+                                page -> page.flatMapSequential(this::enrichWithBookingInfo));
+        }
+
+        /**
+         * Streaming variant of {@link #findBySchoolId(UUID)} for NDJSON / SSE exports.
+         */
+        public Flux<InvoiceDto> streamBySchoolId(UUID schoolId) {
+                return partnerExportQuery.streamInvoices(schoolId);
+        }
+
         public Mono<InvoiceDto> findById(UUID id) {
                 return invoiceRepository.findById(id)
                                 .flatMap(this::enrichWithBookingInfo);
         }
 
+        /**
+         * Pays the invoice and confirms its booking in one transaction: if the
+         * booking cannot be confirmed (no longer PENDING), the payment is not
+         * recorded either.
+         */
+        @Transactional
         public Mono<InvoiceDto> markAsPaid(UUID invoiceId, Invoice.PaymentMethod paymentMethod, String reference) {
-                return invoiceRepository.findById(invoiceId)
-                                .flatMap(invoice -> {
-                                        invoice.setStatus(Invoice.InvoiceStatus.PAID);
-                                        invoice.setPaymentMethod(paymentMethod);
-                                        invoice.setPaymentReference(reference);
-                                        invoice.setPaidAt(LocalDateTime.now());
-                                        return invoiceRepository.save(invoice);
-                                })
-                                .flatMap(invoice -> {
-                                        // Update booking status to CONFIRMED
-                                        return bookingRepository.findById(invoice.getBookingId())
-                                                        .flatMap(booking -> {
-                                                                booking.setStatus(Booking.BookingStatus.CONFIRMED);
-                                                                return bookingRepository.save(booking);
-                                                        })
-                                                        .thenReturn(invoice);
-                                })
+                LocalDateTime paidAt = LocalDateTime.now();
+                // Paying twice keeps the first payment: no new paid_at and no second revenue delta
+                return invoiceRepository.markPaid(invoiceId, paymentMethod != null ? paymentMethod.name() : null,
+                                reference, paidAt)
+                                .flatMap(updated -> invoiceRepository.findById(invoiceId)
+                                                .flatMap(invoice -> updated > 0 ? confirmBooking(invoice)
+                                                                : Mono.just(invoice)))
                                 .flatMap(this::enrichWithBookingInfo);
         }
 
+        private Mono<Invoice> confirmBooking(Invoice invoice) {
+                if (invoice.getBookingId() == null) {
+                        return Mono.just(invoice);
+                }
+                // Confirm the booking and roll the payment into school_stats
+                return bookingService.confirmPaid(invoice.getBookingId())
+                                .flatMap(booking -> schoolStatsService.recordRevenue(invoice))
+                                .thenReturn(invoice);
+        }
+
         private Mono<InvoiceDto> enrichWithBookingInfo(Invoice invoice) {
                 return bookingRepository.findById(invoice.getBookingId())
                                 .flatMap(booking -> Mono.zip(
-                                                schoolRepository.findById(booking.getSchoolId()),
-                                                offerRepository.findById(booking.getOfferId())).map(
+                                                referenceDataCache.school(booking.getSchoolId()),
+                                                referenceDataCache.offer(booking.getOfferId())).map(
                                                                 tuple -> InvoiceDto.builder()
                                                                                 .id(invoice.getId())
                                                                                 .bookingId(invoice.getBookingId())
@@ -2,6 +2,7 @@ package com.drissman.service;
 
 import com.drissman.api.dto.CreateMonitorRequest;
 import com.drissman.api.dto.MonitorDto;
+import com.drissman.cache.ReferenceDataCache;
 import com.drissman.domain.entity.Monitor;
 import com.drissman.domain.repository.MonitorRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +20,8 @@ import java.util.UUID;
 public class MonitorService {
 
     private final MonitorRepository monitorRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final SlotService slotService;
 
     public Flux<MonitorDto> findBySchoolId(UUID schoolId) {
         return monitorRepository.findBySchoolId(schoolId)
@@ -43,6 +46,7 @@ public class MonitorService {
                             .build();
                     return monitorRepository.save(monitor);
                 })
+                .doOnNext(saved -> slotService.invalidate(saved.getSchoolId()))
                 .map(this::toDto);
     }
 
@@ -58,11 +62,17 @@ public class MonitorService {
                     }
                     return monitorRepository.save(monitor);
                 })
+                .flatMap(referenceDataCache::putMonitor)
+                // The number of active monitors caps slot capacity
+                .doOnNext(saved -> slotService.invalidate(saved.getSchoolId()))
                 .map(this::toDto);
     }
 
     public Mono<Void> delete(UUID id) {
-        return monitorRepository.deleteById(id);
+        return monitorRepository.findById(id)
+                .flatMap(monitor -> monitorRepository.deleteById(id)
+                        .doOnSuccess(done -> slotService.invalidate(monitor.getSchoolId())))
+                .then(referenceDataCache.evictMonitor(id));
     }
 
     private MonitorDto toDto(Monitor monitor) {
@@ -3,6 +3,7 @@ package com.drissman.service;
 import com.drissman.api.dto.CreateOfferRequest;
 import com.drissman.api.dto.SchoolDto;
 import com.drissman.api.dto.UpdateOfferRequest;
+import com.drissman.cache.ReferenceDataCache;
 import com.drissman.domain.entity.Offer;
 import com.drissman.domain.repository.OfferRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +18,7 @@ import java.util.UUID;
 public class OfferService {
 
     private final OfferRepository offerRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     public Mono<SchoolDto.OfferDto> create(CreateOfferRequest request) {
         Offer offer = Offer.builder()
@@ -29,6 +31,7 @@ public class OfferService {
                 .build();
 
         return offerRepository.save(offer)
+                .flatMap(referenceDataCache::putOffer)
                 .map(this::toDto);
     }
 
@@ -57,11 +60,13 @@ public class OfferService {
                         offer.setPermitType(request.getPermitType());
                     return offerRepository.save(offer);
                 })
+                .flatMap(referenceDataCache::putOffer)
                 .map(this::toDto);
     }
 
     public Mono<Void> delete(UUID id) {
-        return offerRepository.deleteById(id);
+        return offerRepository.deleteById(id)
+                .then(referenceDataCache.evictOffer(id));
     }
 
     private SchoolDto.OfferDto toDto(Offer offer) {
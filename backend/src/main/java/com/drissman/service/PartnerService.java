@@ -1,11 +1,17 @@
 package com.drissman.service;
 
 import com.drissman.api.dto.BookingDto;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.EnrollmentDto;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.api.dto.PartnerStatsDto;
-import com.drissman.domain.entity.Booking;
+import com.drissman.cache.ReferenceDataCache;
+import com.drissman.domain.entity.Enrollment;
 import com.drissman.domain.repository.BookingRepository;
-import com.drissman.domain.repository.OfferRepository;
+import com.drissman.domain.repository.EnrollmentRepository;
 import com.drissman.service.mapper.BookingMapper;
+import com.drissman.service.query.PartnerExportQuery;
+import com.drissman.service.query.PartnerStatsQuery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -19,72 +25,79 @@ import java.util.UUID;
 public class PartnerService {
 
         private final BookingRepository bookingRepository;
-        private final OfferRepository offerRepository;
         private final EnrollmentRepository enrollmentRepository;
-        private final UserRepository userRepository;
+        private final ReferenceDataCache referenceDataCache;
         private final BookingMapper bookingMapper;
+        private final PartnerStatsQuery partnerStatsQuery;
+        private final PartnerExportQuery partnerExportQuery;
 
         public Flux<BookingDto> getBookings(UUID schoolId) {
                 if (schoolId == null) {
                         return Flux.empty();
                 }
-                return bookingRepository.findBySchoolId(schoolId)
-                                .flatMap(bookingMapper::enrichWithDetails);
+                return bookingMapper.enrichAll(bookingRepository.findBySchoolId(schoolId));
         }
 
-        public Flux<com.drissman.api.dto.EnrollmentDto> getEnrollments(UUID schoolId) {
+        /**
+         * Streaming variant of {@link #getBookings(UUID)}: rows come from a single
+         * join read with a bounded fetch size, so nothing is buffered per school.
+         */
+        public Flux<BookingDto> streamBookings(UUID schoolId) {
+                return partnerExportQuery.streamBookings(schoolId);
+        }
+
+        public Flux<EnrollmentDto> streamEnrollments(UUID schoolId) {
+                return partnerExportQuery.streamEnrollments(schoolId);
+        }
+
+        public Flux<EnrollmentDto> getEnrollments(UUID schoolId) {
                 if (schoolId == null) {
                         return Flux.empty();
                 }
                 return enrollmentRepository.findBySchoolId(schoolId)
-                                .flatMap(enrollment -> Mono.zip(
-                                                userRepository.findById(enrollment.getUserId()),
-                                                offerRepository.findById(enrollment.getOfferId()))
-                                                .map(tuple -> com.drissman.api.dto.EnrollmentDto.builder()
-                                                                .id(enrollment.getId())
-                                                                .userId(enrollment.getUserId())
-                                                                .schoolId(enrollment.getSchoolId())
-                                                                .offerId(enrollment.getOfferId())
-                                                                .userName(tuple.getT1().getFirstName() + " "
-                                                                                + tuple.getT1().getLastName())
-                                                                .offerName(tuple.getT2().getName())
-                                                                .hoursPurchased(enrollment.getHoursPurchased())
-                                                                .hoursConsumed(enrollment.getHoursConsumed())
-                                                                .status(enrollment.getStatus().name())
-                                                                .build()));
+                                .flatMap(this::toEnrollmentDto);
+        }
+
+        public Mono<CursorPage<EnrollmentDto>> getEnrollments(UUID schoolId, PageCursor after, int limit) {
+                return CursorPage.of(
+                                enrollmentRepository.findPageBySchoolId(schoolId, after.createdAt(), after.id(),
+                                                limit + 1),
+                                limit, enrollment -> new PageCursor(enrollment.getCreatedAt(), enrollment.getId()),
+                                page -> page.flatMapSequential(this::toEnrollmentDto));
         }
 
         public Mono<PartnerStatsDto> getStats(UUID schoolId) {
                 if (schoolId == null) {
                         return Mono.empty();
                 }
-                return bookingRepository.findBySchoolId(schoolId)
-                                .collectList()
-                                .flatMap(bookings -> {
-                                        int enrollments = bookings.size();
-
-                                        long upcoming = bookings.stream()
-                                                        .filter(b -> b.getBookingDate() != null && b.getBookingDate()
-                                                                        .isAfter(LocalDate.now().minusDays(1)))
-                                                        .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
-                                                        .count();
+                // Counts, upcoming lessons, revenue and growth come from one aggregate statement
+                return partnerStatsQuery.aggregate(schoolId, LocalDate.now())
+                                .map(totals -> PartnerStatsDto.builder()
+                                                .revenue(String.format("%,d FCFA", totals.revenue())
+                                                                .replace(",", " "))
+                                                .enrollments((int) totals.enrollments())
+                                                .successRate("N/A")
+                                                .upcomingLessons((int) totals.upcomingLessons())
+                                                .revenueGrowth(totals.revenueGrowth())
+                                                .enrollmentGrowth(totals.enrollmentGrowth())
+                                                .build());
+        }
 
-                                        return Flux.fromIterable(bookings)
-                                                        .filter(b -> b.getOfferId() != null)
-                                                        .flatMap(b -> offerRepository.findById(b.getOfferId()))
-                                                        .map(offer -> offer.getPrice() != null
-                                                                        ? offer.getPrice().longValue()
-                                                                        : 0L)
-                                                        .reduce(0L, (a, b) -> a + b)
-                                                        .map(totalRevenue -> PartnerStatsDto.builder()
-                                                                        .revenue(String.format("%,d FCFA", totalRevenue)
-                                                                                        .replace(",", " "))
-                                                                        .enrollments(enrollments)
-                                                                        .successRate("N/A")
-                                                                        .upcomingLessons((int) upcoming)
-                                                                        .revenueGrowth(0.0)
-                                                                        .enrollmentGrowth(0)
-                                                                        .build());
-                                });
+        private Mono<EnrollmentDto> toEnrollmentDto(Enrollment enrollment) {
+                return Mono.zip(
+                                referenceDataCache.user(enrollment.getUserId()),
+                                referenceDataCache.offer(enrollment.getOfferId()))
+                                .map(tuple -> EnrollmentDto.builder()
+                                                .id(enrollment.getId())
+                                                .userId(enrollment.getUserId())
+                                                .schoolId(enrollment.getSchoolId())
+                                                .offerId(enrollment.getOfferId())
+                                                .userName(tuple.getT1().getFirstName() + " "
+                                                                + tuple.getT1().getLastName())
+                                                .offerName(tuple.getT2().getName())
+                                                .hoursPurchased(enrollment.getHoursPurchased())
+                                                .hoursConsumed(enrollment.getHoursConsumed())
+                                                .status(enrollment.getStatus().name())
+                                                .build());
         }
 }
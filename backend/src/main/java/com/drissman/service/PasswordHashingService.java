@@ -0,0 +1,87 @@
+package com.drissman.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated bounded scheduler so
+ * that the ~100 ms of CPU each one costs never blocks a Netty event loop.
+ *
+ * At most {@code auth.hashing.threads} hashes run at once and
+ * {@code auth.hashing.queue-capacity} more may wait; beyond that the call
+ * fails at once with a {@link SaturatedException} (answered 429) instead of
+ * queueing a login burst behind minutes of work.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final Scheduler scheduler;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry, Environment env) {
+        this.passwordEncoder = passwordEncoder;
+        int threads = env.getProperty("auth.hashing.threads", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        this.maxPending = threads + env.getProperty("auth.hashing.queue-capacity", Integer.class, 32);
+        this.scheduler = Schedulers.newBoundedElastic(threads, maxPending, "password-hashing");
+        Gauge.builder("drissman.password.hashing.pending", pending, AtomicInteger::get)
+                .description("Password hashes running or waiting for a hashing thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("drissman.password.hashing.rejected")
+                .description("Password hashes refused because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> Mono<T> submit(Callable<T> hashing) {
+        return Mono.defer(() -> {
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                rejected.increment();
+                log.warn("Password hashing saturated ({} pending), request refused", maxPending);
+                return Mono.error(new SaturatedException());
+            }
+            return Mono.fromCallable(hashing)
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> pending.decrementAndGet());
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * The hashing queue is full; the caller may retry shortly.
+     */
+    public static class SaturatedException extends RuntimeException {
+
+        public SaturatedException() {
+            super("Trop de demandes d'authentification simultanées, veuillez réessayer");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.drissman.service;
+
+import com.drissman.domain.entity.RefreshToken;
+import com.drissman.domain.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens.
+ *
+ * Only the SHA-256 of a token is stored. Exchanging a token marks it used with
+ * one indexed UPDATE, so there is no lookup to cache and two concurrent
+ * exchanges cannot both succeed; the next token of the family is inserted in
+ * the same transaction.
+ *
+ * Presenting a token that was already used means it was copied: the whole
+ * family is revoked and the user must log in again. The exception is a client
+ * retrying a refresh whose response it lost: within
+ * {@code auth.refresh.reuse-grace} of the exchange, and while the successor
+ * is still unused, the successor is revoked and replaced instead.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration lifetime;
+    private final Duration reuseGrace;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            @Value("${jwt.refresh-expiration:2592000000}") long refreshExpiration,
+            @Value("${auth.refresh.reuse-grace:10s}") Duration reuseGrace) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.lifetime = Duration.ofMillis(refreshExpiration);
+        this.reuseGrace = reuseGrace;
+    }
+
+    /**
+     * Starts a new family, at login or registration.
+     */
+    public Mono<String> issue(UUID userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges a refresh token for the next one of its family; empty when the
+     * token cannot be exchanged (unknown, expired, revoked or reused).
+     */
+    @Transactional
+    public Mono<Rotation> rotate(String token) {
+        String tokenHash = hash(token);
+        LocalDateTime now = LocalDateTime.now();
+        return refreshTokenRepository.rotate(tokenHash, now)
+                .flatMap(this::next)
+                .switchIfEmpty(Mono.defer(() -> refreshTokenRepository.findByTokenHash(tokenHash)
+                        .filter(known -> known.getUsedAt() != null && known.getRevokedAt() == null)
+                        .flatMap(reused -> retried(reused, now)
+                                .switchIfEmpty(Mono.defer(() -> {
+                                    log.warn("Refresh token reused for user {}, revoking its family",
+                                            reused.getUserId());
+                                    return refreshTokenRepository.revokeFamily(reused.getFamilyId(), now)
+                                            .then(Mono.<Rotation>empty());
+                                })))));
+    }
+
+    /**
+     * Revokes the token's family (logout); unknown tokens are ignored.
+     */
+    public Mono<Void> revoke(String token) {
+        return refreshTokenRepository.findByTokenHash(hash(token))
+                .flatMap(known -> refreshTokenRepository.revokeFamily(known.getFamilyId(), LocalDateTime.now()))
+                .then();
+    }
+
+    /**
+     * Revokes every family of the user: all their sessions must log in again.
+     */
+    public Mono<Void> revokeAll(UUID userId) {
+        return refreshTokenRepository.revokeUser(userId, LocalDateTime.now()).then();
+    }
+
+    @Scheduled(cron = "${auth.refresh.cleanup.cron:0 0 4 * * *}")
+    public void deleteExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now())
+                .doOnNext(deleted -> log.info("{} expired refresh tokens deleted", deleted))
+                .block(Duration.ofMinutes(10));
+    }
+
+    private Mono<Rotation> next(RefreshToken used) {
+        return issue(used.getUserId(), used.getFamilyId())
+                .map(token -> new Rotation(used.getUserId(), token));
+    }
+
+    // A retry of the family's latest exchange, shortly after it: the successor is replaced
+    private Mono<Rotation> retried(RefreshToken reused, LocalDateTime now) {
+        if (reused.getUsedAt().isBefore(now.minus(reuseGrace)) || !reused.getExpiresAt().isAfter(now)) {
+            return Mono.empty();
+        }
+        return refreshTokenRepository.revokeSuccessor(reused.getFamilyId(), reused.getUsedAt(), now)
+                .filter(revoked -> revoked > 0)
+                .flatMap(revoked -> {
+                    log.info("Refresh retried by user {}, replacing the unused successor", reused.getUserId());
+                    return next(reused);
+                });
+    }
+
+    private Mono<String> issue(UUID userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        return refreshTokenRepository.save(RefreshToken.builder()
+                        .tokenHash(hash(token))
+                        .userId(userId)
+                        .familyId(familyId)
+                        .expiresAt(LocalDateTime.now().plus(lifetime))
+                        .build())
+                .thenReturn(token);
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(UUID userId, String refreshToken) {
+    }
+}
@@ -1,13 +1,15 @@
 package com.drissman.service;
 
 import com.drissman.api.dto.CreateReviewRequest;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.api.dto.ReviewDto;
+import com.drissman.cache.ReferenceDataCache;
 import com.drissman.domain.entity.Booking;
 import com.drissman.domain.entity.Review;
 import com.drissman.domain.repository.BookingRepository;
 import com.drissman.domain.repository.ReviewRepository;
 import com.drissman.domain.repository.SchoolRepository;
-import com.drissman.domain.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -23,9 +25,9 @@ import java.util.UUID;
 public class ReviewService {
 
         private final ReviewRepository reviewRepository;
-        private final UserRepository userRepository;
         private final SchoolRepository schoolRepository;
         private final BookingRepository bookingRepository;
+        private final ReferenceDataCache referenceDataCache;
 
         public Mono<ReviewDto> create(UUID userId, CreateReviewRequest request) {
                 log.info("Creating review for user {} and school {}. Rating: {}", userId, request.getSchoolId(),
@@ -86,6 +88,13 @@ public class ReviewService {
                                 .flatMap(this::enrichWithUserName);
         }
 
+        public Mono<CursorPage<ReviewDto>> findBySchoolId(UUID schoolId, PageCursor after, int limit) {
+                return CursorPage.of(
+                                reviewRepository.findPageBySchoolId(schoolId, after.createdAt(), after.id(), limit + 1),
+                                limit, review -> new PageCursor(review.getCreatedAt(), review.getId()),
+                                page -> page.flatMapSequential(this::enrichWithUserName));
+        }
+
         public Mono<ReviewDto> verifyReview(UUID reviewId) {
                 return reviewRepository.findById(reviewId)
                                 .flatMap(review -> {
@@ -102,7 +111,7 @@ public class ReviewService {
         }
 
         private Mono<ReviewDto> enrichWithUserName(Review review) {
-                return userRepository.findById(review.getUserId())
+                return referenceDataCache.user(review.getUserId())
                                 .map(user -> ReviewDto.builder()
                                                 .id(review.getId())
                                                 .userId(review.getUserId())
@@ -134,7 +143,8 @@ public class ReviewService {
                                                 .flatMap(school -> {
                                                         school.setRating(BigDecimal.valueOf(avgRating));
                                                         return schoolRepository.save(school);
-                                                }))
+                                                })
+                                                .flatMap(referenceDataCache::putSchool))
                                 .then();
         }
 }
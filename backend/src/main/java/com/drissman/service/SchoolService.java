@@ -1,9 +1,11 @@
 package com.drissman.service;
 
 import com.drissman.api.dto.SchoolDto;
+import com.drissman.cache.ReferenceDataCache;
 import com.drissman.domain.entity.School;
 import com.drissman.domain.repository.OfferRepository;
 import com.drissman.domain.repository.SchoolRepository;
+import com.drissman.service.query.SchoolCatalogQuery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -11,7 +13,6 @@ import reactor.core.publisher.Mono;
 
 import com.drissman.api.dto.UpdateSchoolRequest;
 
-import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -20,45 +21,12 @@ public class SchoolService {
 
         private final SchoolRepository schoolRepository;
         private final OfferRepository offerRepository;
+        private final SchoolCatalogQuery schoolCatalogQuery;
+        private final ReferenceDataCache referenceDataCache;
 
         public Flux<SchoolDto> findAll(String city) {
-                Flux<School> schools = (city != null && !city.isBlank())
-                                ? schoolRepository.findByCityOrderByRatingDesc(city)
-                                : schoolRepository.findAll();
-
-                return schools.flatMap(school -> {
-                        SchoolDto dto = toDto(school);
-                        return offerRepository.findBySchoolId(school.getId())
-                                        .collectList()
-                                        .flatMap(offers -> {
-                                                // Filter out schools without offers, unless they are demo schools
-                                                if (offers.isEmpty() && !Boolean.TRUE.equals(school.getIsDemo())) {
-                                                        return Mono.empty(); // Skip this school
-                                                }
-
-                                                // Calculate min price
-                                                Integer minPrice = offers.stream()
-                                                                .map(com.drissman.domain.entity.Offer::getPrice)
-                                                                .min(java.util.Comparator.naturalOrder())
-                                                                .orElse(150000); // Fallback price for demo schools
-                                                dto.setMinPrice(minPrice);
-
-                                                // Map offers to DTOs
-                                                List<SchoolDto.OfferDto> offerDtos = offers.stream()
-                                                                .map(offer -> SchoolDto.OfferDto.builder()
-                                                                                .id(offer.getId())
-                                                                                .name(offer.getName())
-                                                                                .description(offer.getDescription())
-                                                                                .price(offer.getPrice())
-                                                                                .hours(offer.getHours())
-                                                                                .permitType(offer.getPermitType())
-                                                                                .build())
-                                                                .toList();
-                                                dto.setOffers(offerDtos);
-
-                                                return Mono.just(dto);
-                                        });
-                });
+                // Schools, min price and offers are resolved in one round-trip
+                return schoolCatalogQuery.findCatalog(city);
         }
 
         public Mono<SchoolDto> findById(UUID id) {
@@ -81,7 +49,8 @@ public class SchoolService {
                                                         SchoolDto dto = toDto(school);
                                                         dto.setOffers(offers);
                                                         return dto;
-                                                }));
+                                                });
+                                });
         }
 
         public Mono<SchoolDto> update(UUID id, UpdateSchoolRequest request) {
@@ -95,12 +64,14 @@ public class SchoolService {
                                                 school.setImageUrl(request.getImageUrl());
                                         return schoolRepository.save(school);
                                 })
+                                .flatMap(referenceDataCache::putSchool)
                                 .flatMap(savedSchool -> savedSchool != null ? findById(savedSchool.getId())
                                                 : Mono.empty());
         }
 
         public Mono<School> save(School school) {
-                return schoolRepository.save(school);
+                return schoolRepository.save(school)
+                                .flatMap(referenceDataCache::putSchool);
         }
 
         private SchoolDto toDto(School school) {
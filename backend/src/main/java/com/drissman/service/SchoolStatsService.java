@@ -0,0 +1,180 @@
+package com.drissman.service;
+
+import com.drissman.domain.entity.Booking;
+import com.drissman.domain.entity.Invoice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Maintains the {@code school_stats} daily rollup read by the partner dashboard.
+ *
+ * Booking and invoice state changes apply deltas with an upsert; a nightly
+ * reconciliation rebuilds the table from bookings and invoices to repair any
+ * drift (e.g. a delta lost because its request failed half-way). The same
+ * rebuild backfills the table on the first start after it was created.
+ *
+ * A delta reads its bucket from the row it counts, with the expression the
+ * rebuild uses, so both always agree on the day. Deltas hold a shared advisory
+ * lock until their transaction commits and the rebuild takes it exclusively
+ * before reading the facts: it waits for the deltas in flight, counts their
+ * rows, and the deltas that come after it apply on top of its result.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchoolStatsService {
+
+    // %s selects the delta (school_id, day, bookings, confirmed_bookings, revenue) from its source row
+    private static final String INCREMENT_SQL = """
+            WITH guard AS (SELECT pg_advisory_xact_lock_shared(hashtext('school_stats')))
+            INSERT INTO school_stats (school_id, day, bookings, confirmed_bookings, revenue, refreshed_at)
+            SELECT f.school_id, f.day, f.bookings, f.confirmed_bookings, f.revenue, now()
+            FROM guard, (%s) f
+            ON CONFLICT (school_id, day) DO UPDATE SET
+                bookings = school_stats.bookings + EXCLUDED.bookings,
+                confirmed_bookings = school_stats.confirmed_bookings + EXCLUDED.confirmed_bookings,
+                revenue = school_stats.revenue + EXCLUDED.revenue,
+                refreshed_at = now()
+            """;
+
+    private static final String BOOKING_FACT = """
+            SELECT school_id, created_at::date AS day, 1 AS bookings, 0 AS confirmed_bookings, 0 AS revenue
+            FROM bookings
+            WHERE id = :id
+            """;
+
+    private static final String CONFIRMED_FACT = """
+            SELECT school_id, booking_date AS day, 0 AS bookings, :confirmed AS confirmed_bookings, 0 AS revenue
+            FROM bookings
+            WHERE id = :id
+            """;
+
+    private static final String REVENUE_FACT = """
+            SELECT b.school_id, COALESCE(i.paid_at, i.created_at)::date AS day,
+                   0 AS bookings, 0 AS confirmed_bookings, i.amount AS revenue
+            FROM invoices i
+            JOIN bookings b ON b.id = i.booking_id
+            WHERE i.id = :id AND i.status = 'PAID'
+            """;
+
+    // Waits for the deltas in flight and holds off new ones until the rebuild commits
+    private static final String REBUILD_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('school_stats'))";
+
+    // Upserts the recomputed buckets and deletes the ones that no longer have facts, atomically
+    private static final String REBUILD_SQL = """
+            WITH facts AS (
+                SELECT school_id, day,
+                       SUM(bookings) AS bookings,
+                       SUM(confirmed_bookings) AS confirmed_bookings,
+                       SUM(revenue) AS revenue
+                FROM (
+                    SELECT school_id, created_at::date AS day, 1 AS bookings, 0 AS confirmed_bookings, 0 AS revenue
+                    FROM bookings
+                    UNION ALL
+                    SELECT school_id, booking_date, 0, 1, 0
+                    FROM bookings
+                    WHERE status = 'CONFIRMED'
+                    UNION ALL
+                    SELECT b.school_id, COALESCE(i.paid_at, i.created_at)::date, 0, 0, i.amount
+                    FROM invoices i
+                    JOIN bookings b ON b.id = i.booking_id
+                    WHERE i.status = 'PAID'
+                ) f
+                GROUP BY school_id, day
+            ), upserted AS (
+                INSERT INTO school_stats (school_id, day, bookings, confirmed_bookings, revenue, refreshed_at)
+                SELECT school_id, day, bookings, confirmed_bookings, COALESCE(revenue, 0), now()
+                FROM facts
+                ON CONFLICT (school_id, day) DO UPDATE SET
+                    bookings = EXCLUDED.bookings,
+                    confirmed_bookings = EXCLUDED.confirmed_bookings,
+                    revenue = EXCLUDED.revenue,
+                    refreshed_at = EXCLUDED.refreshed_at
+                RETURNING 1
+            )
+            DELETE FROM school_stats s
+            WHERE NOT EXISTS (SELECT 1 FROM facts f WHERE f.school_id = s.school_id AND f.day = s.day)
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * The booking was created; counted on the day of its {@code created_at}.
+     */
+    public Mono<Void> recordBooking(Booking booking) {
+        return increment(databaseClient.sql(INCREMENT_SQL.formatted(BOOKING_FACT))
+                .bind("id", booking.getId()));
+    }
+
+    /**
+     * The booking moved from {@code previous} to its current status. Entering or
+     * leaving CONFIRMED adjusts the confirmed count of the lesson date.
+     */
+    public Mono<Void> recordStatusChange(Booking booking, Booking.BookingStatus previous) {
+        boolean wasConfirmed = previous == Booking.BookingStatus.CONFIRMED;
+        boolean isConfirmed = booking.getStatus() == Booking.BookingStatus.CONFIRMED;
+        if (wasConfirmed == isConfirmed || booking.getBookingDate() == null) {
+            return Mono.empty();
+        }
+        return increment(databaseClient.sql(INCREMENT_SQL.formatted(CONFIRMED_FACT))
+                .bind("id", booking.getId())
+                .bind("confirmed", isConfirmed ? 1 : -1));
+    }
+
+    /**
+     * The invoice was paid; counted on the day of its {@code paid_at}, for the
+     * school of its booking.
+     */
+    public Mono<Void> recordRevenue(Invoice invoice) {
+        if (invoice.getAmount() == null || invoice.getAmount() == 0) {
+            return Mono.empty();
+        }
+        return increment(databaseClient.sql(INCREMENT_SQL.formatted(REVENUE_FACT))
+                .bind("id", invoice.getId()));
+    }
+
+    public Mono<Void> rebuild() {
+        return databaseClient.sql(REBUILD_LOCK_SQL)
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql(REBUILD_SQL)
+                        .fetch()
+                        .rowsUpdated())
+                .doOnNext(deleted -> log.info("school_stats rebuilt ({} stale buckets removed)", deleted))
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+
+    // An empty rollup over existing bookings has never been filled: backfill it now, not at 3:30
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        databaseClient.sql("SELECT 1 FROM school_stats LIMIT 1")
+                .fetch()
+                .first()
+                .hasElement()
+                .filter(filled -> !filled)
+                .flatMap(empty -> databaseClient.sql("SELECT 1 FROM bookings LIMIT 1").fetch().first().hasElement())
+                .filter(hasBookings -> hasBookings)
+                .flatMap(hasBookings -> rebuild())
+                .subscribe(null, e -> log.warn("school_stats backfill failed, left to the nightly reconcile", e));
+    }
+
+    @Scheduled(cron = "${stats.reconcile.cron:0 30 3 * * *}")
+    public void reconcile() {
+        rebuild().subscribe(null, e -> log.warn("school_stats reconcile failed, left to the next run", e));
+    }
+
+    private Mono<Void> increment(DatabaseClient.GenericExecuteSpec delta) {
+        return delta.fetch()
+                .rowsUpdated()
+                .then();
+    }
+}
@@ -1,19 +1,27 @@
 package com.drissman.service;
 
 import com.drissman.api.dto.CreateSessionRequest;
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.PageCursor;
 import com.drissman.api.dto.SessionDto;
+import com.drissman.cache.ReferenceDataCache;
 import com.drissman.domain.entity.Enrollment;
 import com.drissman.domain.entity.Monitor;
 import com.drissman.domain.entity.Session;
 import com.drissman.domain.repository.*;
+import com.drissman.service.planning.SessionIntervalIndex;
+import com.drissman.service.query.SessionPlanningQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -23,15 +31,22 @@ public class SessionService {
 
     private final SessionRepository sessionRepository;
     private final EnrollmentRepository enrollmentRepository;
-    private final MonitorRepository monitorRepository;
-    private final UserRepository userRepository;
-    private final OfferRepository offerRepository;
-
-    public Flux<SessionDto> findBySchoolId(UUID schoolId) {
-        // First get all enrollments for this school to find relevant sessions
-        return enrollmentRepository.findBySchoolId(schoolId)
-                .flatMap(enrollment -> sessionRepository.findByEnrollmentId(enrollment.getId()))
-                .flatMap(this::enrichSession);
+    private final ReferenceDataCache referenceDataCache;
+    private final SessionPlanningQuery sessionPlanningQuery;
+    private final SessionIntervalIndex sessionIntervalIndex;
+    private final SlotService slotService;
+
+    /**
+     * Planning of a school in calendar order, optionally limited to [from, to].
+     */
+    public Flux<SessionDto> findBySchoolId(UUID schoolId, LocalDate from, LocalDate to) {
+        // One join instead of enrollments -> sessions -> 4 lookups per session
+        return sessionPlanningQuery.findBySchool(schoolId, from, to);
+    }
+
+    public Mono<CursorPage<SessionDto>> findBySchoolId(UUID schoolId, LocalDate from, LocalDate to,
+            PageCursor after, int limit) {
+        return sessionPlanningQuery.findPageBySchool(schoolId, from, to, after, limit);
     }
 
     public Flux<SessionDto> findByMonitorId(UUID monitorId) {
@@ -41,21 +56,14 @@ public class SessionService {
 
     @Transactional
     public Mono<SessionDto> create(CreateSessionRequest request) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            return Mono.error(new IllegalArgumentException("L'heure de fin doit être après l'heure de début"));
+        }
         return enrollmentRepository.findById(request.getEnrollmentId())
                 .flatMap(enrollment -> {
-                    // Check if student has enough hours remaining
-                    int remainingHours = enrollment.getHoursPurchased() - enrollment.getHoursConsumed();
-                    // Duration calculation (simple for now: end - start)
-                    int duration = (int) java.time.Duration.between(request.getStartTime(), request.getEndTime())
-                            .toHours();
-
-                    if (remainingHours < duration) {
-                        return Mono.error(new RuntimeException("Heures insuffisantes pour planifier ce cours ("
-                                + duration + "h requises, " + remainingHours + "h restantes)"));
-                    }
-
                     Session session = Session.builder()
                             .enrollmentId(request.getEnrollmentId())
+                            .schoolId(enrollment.getSchoolId())
                             .monitorId(request.getMonitorId())
                             .date(request.getDate())
                             .startTime(request.getStartTime())
@@ -66,7 +74,16 @@ public class SessionService {
                             .createdAt(LocalDateTime.now())
                             .build();
 
-                    return sessionRepository.save(session);
+                    // Reject monitor / student double-bookings before writing
+                    return sessionIntervalIndex.checkAvailable(session.getMonitorId(), enrollment.getUserId(),
+                            session.getDate(), session.getStartTime(), session.getEndTime())
+                            // Hours are reserved by the insert's transaction, not checked against a read
+                            .then(SessionIntervalIndex.occupiesSlot(session) ? reserveHours(session) : Mono.empty())
+                            .then(rejectingOverlap(sessionRepository.save(session), session))
+                            .doOnNext(saved -> {
+                                sessionIntervalIndex.record(saved);
+                                slotService.onSessionChanged(enrollment.getSchoolId(), saved, 1);
+                            });
                 })
                 .flatMap(this::enrichSession);
     }
@@ -76,65 +93,132 @@ public class SessionService {
         return sessionRepository.findById(id)
                 .flatMap(session -> {
                     Session.SessionStatus oldStatus = session.getStatus();
-                    session.setStatus(status);
-
-                    Mono<Session> saveSession = sessionRepository.save(session);
-
-                    // If session is being marked as COMPLETED for the first time
-                    if (status == Session.SessionStatus.COMPLETED && oldStatus != Session.SessionStatus.COMPLETED) {
-                        return enrollmentRepository.findById(session.getEnrollmentId())
-                                .flatMap(enrollment -> {
-                                    int duration = session.getDurationHours();
-                                    enrollment.setHoursConsumed(enrollment.getHoursConsumed() + duration);
-                                    return enrollmentRepository.save(enrollment);
-                                })
-                                .then(saveSession);
+                    if (oldStatus == status) {
+                        return Mono.just(session);
                     }
-
-                    // If session was COMPLETED and is now something else (correction)
-                    if (oldStatus == Session.SessionStatus.COMPLETED && status != Session.SessionStatus.COMPLETED) {
-                        return enrollmentRepository.findById(session.getEnrollmentId())
-                                .flatMap(enrollment -> {
-                                    int duration = session.getDurationHours();
-                                    enrollment.setHoursConsumed(Math.max(0, enrollment.getHoursConsumed() - duration));
-                                    return enrollmentRepository.save(enrollment);
-                                })
-                                .then(saveSession);
-                    }
-
-                    return saveSession;
+                    session.setStatus(status);
+                    // Status and hours change in single-statement updates, rolled back together
+                    return syncTimetables(session, oldStatus)
+                            .flatMap(saved -> adjustHours(saved, oldStatus, status).thenReturn(saved));
                 })
                 .flatMap(this::enrichSession);
     }
 
+    @Transactional
     public Mono<Void> delete(UUID id) {
         return sessionRepository.findById(id)
+                // Deleted only if still in the status read: a concurrent completion or delete makes this one fail
+                .flatMap(session -> sessionRepository.deleteIfStatus(id, session.getStatus().name())
+                        .flatMap(deleted -> deleted == 1 ? Mono.just(session)
+                                : Mono.error(new RuntimeException("Le statut de cette séance a déjà été modifié"))))
                 .flatMap(session -> {
-                    // If we delete a completed session, we should probably credit back the hours
-                    if (session.getStatus() == Session.SessionStatus.COMPLETED) {
-                        return enrollmentRepository.findById(session.getEnrollmentId())
-                                .flatMap(enrollment -> {
-                                    enrollment.setHoursConsumed(
-                                            Math.max(0, enrollment.getHoursConsumed() - session.getDurationHours()));
-                                    return enrollmentRepository.save(enrollment);
-                                })
-                                .then(sessionRepository.deleteById(id));
+                    // Deleting a session that was not cancelled gives its hours back
+                    Mono<Void> credit = session.getStatus() != Session.SessionStatus.CANCELLED
+                            ? enrollmentRepository.releaseHours(session.getEnrollmentId(), session.getDurationHours())
+                                    .then()
+                            : Mono.empty();
+                    return credit.thenReturn(session);
+                })
+                .flatMap(session -> enrollmentRepository.findById(session.getEnrollmentId())
+                        .doOnNext(enrollment -> {
+                            sessionIntervalIndex.forget(session);
+                            if (SessionIntervalIndex.occupiesSlot(session)) {
+                                slotService.onSessionChanged(enrollment.getSchoolId(), session, -1);
+                            }
+                        }))
+                .then();
+    }
+
+    /**
+     * A session holds its hours from scheduling until it is cancelled: cancelling
+     * gives them back, reopening a cancelled session takes them again.
+     */
+    private Mono<Void> adjustHours(Session session, Session.SessionStatus oldStatus, Session.SessionStatus status) {
+        if (oldStatus == Session.SessionStatus.CANCELLED && status != Session.SessionStatus.CANCELLED) {
+            return reserveHours(session);
+        }
+        if (oldStatus != Session.SessionStatus.CANCELLED && status == Session.SessionStatus.CANCELLED) {
+            return enrollmentRepository.releaseHours(session.getEnrollmentId(), session.getDurationHours()).then();
+        }
+        return Mono.empty();
+    }
+
+    /**
+     * Conditional update: fails, rolling back the caller's transaction, when the
+     * enrollment has fewer hours left than the session lasts.
+     */
+    private Mono<Void> reserveHours(Session session) {
+        int duration = session.getDurationHours();
+        return enrollmentRepository.consumeHours(session.getEnrollmentId(), duration)
+                .flatMap(updated -> updated == 1 ? Mono.<Void>empty()
+                        : Mono.error(new RuntimeException(
+                                "Heures insuffisantes pour planifier ce cours (" + duration + "h requises)")));
+    }
+
+    /**
+     * Applies a status change. A cancelled session that becomes active again must
+     * still fit in the timetables; entering or leaving CANCELLED updates them.
+     */
+    private Mono<Session> syncTimetables(Session session, Session.SessionStatus oldStatus) {
+        boolean wasActive = oldStatus != Session.SessionStatus.CANCELLED;
+        boolean isActive = SessionIntervalIndex.occupiesSlot(session);
+        if (wasActive == isActive) {
+            return transition(session, oldStatus);
+        }
+        return enrollmentRepository.findById(session.getEnrollmentId())
+                .flatMap(enrollment -> {
+                    Mono<Void> guard = isActive
+                            ? sessionIntervalIndex.checkAvailable(session.getMonitorId(), enrollment.getUserId(),
+                                    session.getDate(), session.getStartTime(), session.getEndTime())
+                            : Mono.empty();
+                    return guard.then(rejectingOverlap(transition(session, oldStatus), session))
+                            .doOnNext(saved -> {
+                                sessionIntervalIndex.record(saved);
+                                slotService.onSessionChanged(enrollment.getSchoolId(), saved, isActive ? 1 : -1);
+                            });
+                })
+                .switchIfEmpty(Mono.defer(() -> transition(session, oldStatus)));
+    }
+
+    /**
+     * Compare-and-set of the status: fails if another request changed it since it was read.
+     */
+    private Mono<Session> transition(Session session, Session.SessionStatus expected) {
+        return sessionRepository.updateStatus(session.getId(), expected.name(), session.getStatus().name())
+                .flatMap(updated -> updated == 1 ? Mono.just(session)
+                        : Mono.error(new RuntimeException("Le statut de cette séance a déjà été modifié")));
+    }
+
+    /**
+     * Turns a violation of the monitor exclusion constraint (a concurrent
+     * booking the index could not see) into a conflict.
+     */
+    private Mono<Session> rejectingOverlap(Mono<Session> write, Session session) {
+        return write
+                .onErrorMap(DataIntegrityViolationException.class, e -> {
+                    if (e.getMessage() == null
+                            || !e.getMessage().contains(SessionIntervalIndex.MONITOR_OVERLAP_CONSTRAINT)) {
+                        return e;
                     }
-                    return sessionRepository.deleteById(id);
+                    sessionIntervalIndex.invalidateMonitor(session.getMonitorId(), session.getDate());
+                    return new RuntimeException("Le moniteur a déjà une séance sur ce créneau");
                 });
     }
 
     private Mono<SessionDto> enrichSession(Session session) {
         return Mono.zip(
                 enrollmentRepository.findById(session.getEnrollmentId()),
-                session.getMonitorId() != null ? monitorRepository.findById(session.getMonitorId()) : Mono.empty(),
+                session.getMonitorId() != null
+                        ? referenceDataCache.monitor(session.getMonitorId()).map(Optional::of)
+                                .defaultIfEmpty(Optional.empty())
+                        : Mono.just(Optional.<Monitor>empty()),
                 Mono.just(session)).flatMap(tuple -> {
                     Enrollment enrollment = tuple.getT1();
-                    Monitor monitor = tuple.getT2() instanceof Monitor ? (Monitor) tuple.getT2() : null;
+                    Monitor monitor = tuple.getT2().orElse(null);
 
                     return Mono.zip(
-                            userRepository.findById(enrollment.getUserId()),
-                            offerRepository.findById(enrollment.getOfferId())).map(
+                            referenceDataCache.user(enrollment.getUserId()),
+                            referenceDataCache.offer(enrollment.getOfferId())).map(
                                     names -> SessionDto.builder()
                                             .id(session.getId())
                                             .enrollmentId(session.getEnrollmentId())
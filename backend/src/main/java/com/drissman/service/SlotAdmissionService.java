@@ -0,0 +1,71 @@
+package com.drissman.service;
+
+import com.drissman.domain.entity.Booking;
+import com.drissman.service.query.SlotUsageQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Enforces slot capacity ({@code Availability.maxBookings}) when bookings are
+ * admitted.
+ *
+ * Admissions of a slot are serialized on its {@code slot_locks} row, which the
+ * upsert keeps locked until the caller's transaction ends. Under that lock the
+ * places in use are counted from the bookings and sessions themselves, with the
+ * same rules as the slot grid ({@link SlotUsageQuery#held}). There is no
+ * counter to keep in step: a cancelled booking frees its place by its status,
+ * and a transaction that fails after the admission leaves nothing behind.
+ *
+ * Must be called inside the transaction that writes the booking.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SlotAdmissionService {
+
+    // The no-op update takes the row lock: concurrent admissions of the slot wait here
+    private static final String LOCK_SQL = """
+            INSERT INTO slot_locks (school_id, day, slot_start)
+            VALUES (:schoolId, :day, :slotStart)
+            ON CONFLICT (school_id, day, slot_start) DO UPDATE SET slot_start = EXCLUDED.slot_start
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final SlotService slotService;
+    private final SlotUsageQuery slotUsageQuery;
+
+    /**
+     * Takes a place for the booking, or errors if its slot is full. Completes
+     * without effect for schools that publish no availabilities.
+     */
+    public Mono<Void> acquire(Booking booking) {
+        return slotService.slotFor(booking.getSchoolId(), booking.getBookingDate(), booking.getBookingTime())
+                .flatMap(slot -> {
+                    if (slot.capacity() <= 0) {
+                        return Mono.error(full());
+                    }
+                    return databaseClient.sql(LOCK_SQL)
+                            .bind("schoolId", booking.getSchoolId())
+                            .bind("day", booking.getBookingDate())
+                            .bind("slotStart", slot.start())
+                            .fetch()
+                            .rowsUpdated()
+                            .then(slotUsageQuery.held(booking.getSchoolId(), booking.getBookingDate(), slot.start()))
+                            .flatMap(held -> {
+                                if (held >= slot.capacity()) {
+                                    log.debug("Slot {} {} of school {} is full ({}/{})", booking.getBookingDate(),
+                                            slot.start(), booking.getSchoolId(), held, slot.capacity());
+                                    return Mono.error(full());
+                                }
+                                return Mono.empty();
+                            });
+                });
+    }
+
+    private static RuntimeException full() {
+        return new RuntimeException("Ce créneau est déjà complet");
+    }
+}
@@ -0,0 +1,198 @@
+package com.drissman.service;
+
+import com.drissman.api.dto.SlotDto;
+import com.drissman.domain.entity.Booking;
+import com.drissman.domain.entity.Monitor;
+import com.drissman.domain.entity.Session;
+import com.drissman.domain.repository.AvailabilityRepository;
+import com.drissman.domain.repository.MonitorRepository;
+import com.drissman.service.planning.SlotGrid;
+import com.drissman.service.query.SlotUsageQuery;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Free-slot search (GET /api/schools/{id}/slots) served from a per-school
+ * {@link SlotGrid}.
+ *
+ * Grids are built on first use and kept in memory: booking and session changes
+ * made on this instance adjust the counters of the dates already loaded, and
+ * availability or monitor changes rebuild the grid. Changes made by other
+ * instances are picked up when the grid expires ({@code planning.slots.ttl}),
+ * so the search is advisory; capacity is enforced when a booking is created.
+ */
+@Service
+public class SlotService {
+
+    static final int MAX_RANGE_DAYS = 31;
+    static final int DEFAULT_RANGE_DAYS = 7;
+
+    private final AvailabilityRepository availabilityRepository;
+    private final MonitorRepository monitorRepository;
+    private final SlotUsageQuery slotUsageQuery;
+    private final Cache<UUID, SlotGrid> grids;
+
+    public SlotService(AvailabilityRepository availabilityRepository, MonitorRepository monitorRepository,
+            SlotUsageQuery slotUsageQuery, Environment environment) {
+        this.availabilityRepository = availabilityRepository;
+        this.monitorRepository = monitorRepository;
+        this.slotUsageQuery = slotUsageQuery;
+        this.grids = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("planning.slots.max-schools", Long.class, 1_000L))
+                .expireAfterWrite(environment.getProperty("planning.slots.ttl", Duration.class,
+                        Duration.ofMinutes(5)))
+                .build();
+    }
+
+    /**
+     * Slots with remaining capacity between {@code from} and {@code to}
+     * (inclusive, default: the next {@value #DEFAULT_RANGE_DAYS} days).
+     */
+    public Flux<SlotDto> findSlots(UUID schoolId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_RANGE_DAYS - 1);
+        if (end.isBefore(start)) {
+            return Flux.error(new IllegalArgumentException("La date de fin doit être après la date de début"));
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return Flux.error(new IllegalArgumentException(
+                    "La période demandée ne peut pas dépasser " + MAX_RANGE_DAYS + " jours"));
+        }
+
+        return grid(schoolId)
+                .flatMap(grid -> loadUsage(schoolId, grid, start, end).thenReturn(grid))
+                .flatMapIterable(grid -> freeSlots(grid, start, end, LocalDateTime.now()));
+    }
+
+    /**
+     * Slot holding a booking at {@code date} / {@code time} and its capacity.
+     * Completes empty when the school publishes no availabilities (bookings are
+     * then not capacity-checked) and errors when the time is outside its hours.
+     */
+    public Mono<BookableSlot> slotFor(UUID schoolId, LocalDate date, String time) {
+        return grid(schoolId)
+                .flatMap(grid -> {
+                    if (grid.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    LocalTime start = SlotGrid.parseTime(time);
+                    LocalTime slot = start != null ? grid.slotContaining(date, start) : null;
+                    if (slot == null) {
+                        return Mono.error(new IllegalArgumentException(
+                                "Ce créneau ne fait pas partie des disponibilités de l'auto-école"));
+                    }
+                    return Mono.just(new BookableSlot(slot, grid.slotsOn(date).get(slot)));
+                });
+    }
+
+    public void onBookingChanged(Booking booking, int delta) {
+        SlotGrid grid = delta != 0 ? grids.getIfPresent(booking.getSchoolId()) : null;
+        if (grid != null && booking.getBookingDate() != null) {
+            grid.adjustBooking(booking.getBookingDate(), booking.getBookingTime(), delta);
+        }
+    }
+
+    public void onSessionChanged(UUID schoolId, Session session, int delta) {
+        SlotGrid grid = grids.getIfPresent(schoolId);
+        if (grid != null && session.getDate() != null && session.getStartTime() != null
+                && session.getEndTime() != null) {
+            grid.adjust(session.getDate(), session.getStartTime(), session.getEndTime(), delta);
+        }
+    }
+
+    /**
+     * The school's availabilities or monitors changed: its grid is rebuilt on next use.
+     */
+    public void invalidate(UUID schoolId) {
+        if (schoolId != null) {
+            grids.invalidate(schoolId);
+        }
+    }
+
+    private Mono<SlotGrid> grid(UUID schoolId) {
+        SlotGrid cached = grids.getIfPresent(schoolId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Mono.zip(
+                availabilityRepository.findBySchoolId(schoolId).collectList(),
+                monitorRepository.findBySchoolIdAndStatus(schoolId, Monitor.MonitorStatus.ACTIVE).count())
+                .map(tuple -> grids.asMap().computeIfAbsent(schoolId,
+                        id -> SlotGrid.build(tuple.getT1(), tuple.getT2())));
+    }
+
+    /**
+     * Fills the dates of the range the grid has not loaded yet, with one query
+     * per table for the smallest range covering them.
+     */
+    private Mono<Void> loadUsage(UUID schoolId, SlotGrid grid, LocalDate from, LocalDate to) {
+        List<LocalDate> missing = from.datesUntil(to.plusDays(1))
+                .filter(date -> !grid.isLoaded(date) && !grid.slotsOn(date).isEmpty())
+                .toList();
+        if (missing.isEmpty()) {
+            return Mono.empty();
+        }
+        LocalDate first = missing.get(0);
+        LocalDate last = missing.get(missing.size() - 1);
+
+        Map<LocalDate, Map<LocalTime, Integer>> used = new HashMap<>();
+        Mono<Void> bookings = slotUsageQuery.bookings(schoolId, first, last)
+                .doOnNext(booked -> {
+                    LocalTime time = SlotGrid.parseTime(booked.time());
+                    LocalTime slot = time != null ? grid.slotContaining(booked.date(), time) : null;
+                    if (slot != null) {
+                        used.computeIfAbsent(booked.date(), d -> new HashMap<>()).merge(slot, 1, Integer::sum);
+                    }
+                })
+                .then();
+        Mono<Void> sessions = slotUsageQuery.sessions(schoolId, first, last)
+                .doOnNext(session -> grid.overlapping(session.date(), session.start(), session.end())
+                        .forEach(slot -> used.computeIfAbsent(session.date(), d -> new HashMap<>())
+                                .merge(slot, 1, Integer::sum)))
+                .then();
+
+        // Sequential so that the map is only touched by one signal at a time
+        return bookings.then(sessions)
+                .doOnSuccess(done -> missing.forEach(date -> grid.load(date, used.getOrDefault(date, Map.of()))));
+    }
+
+    private static List<SlotDto> freeSlots(SlotGrid grid, LocalDate from, LocalDate to, LocalDateTime now) {
+        List<SlotDto> slots = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            for (Map.Entry<LocalTime, Integer> slot : grid.slotsOn(date).entrySet()) {
+                if (!date.atTime(slot.getKey()).isAfter(now)) {
+                    continue;
+                }
+                int available = grid.remaining(date, slot.getKey());
+                if (available > 0) {
+                    slots.add(SlotDto.builder()
+                            .date(date)
+                            .startTime(slot.getKey().toString())
+                            .endTime(slot.getKey().plus(SlotGrid.SLOT_LENGTH).toString())
+                            .capacity(slot.getValue())
+                            .available(available)
+                            .build());
+                }
+            }
+        }
+        return slots;
+    }
+
+    public record BookableSlot(LocalTime start, int capacity) {
+    }
+}
@@ -3,10 +3,10 @@ package com.drissman.service;
 import com.drissman.api.dto.ChangePasswordRequest;
 import com.drissman.api.dto.UpdateProfileRequest;
 import com.drissman.api.dto.UserDto;
+import com.drissman.cache.ReferenceDataCache;
 import com.drissman.domain.entity.User;
 import com.drissman.domain.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -17,7 +17,8 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final ReferenceDataCache referenceDataCache;
 
     public Mono<UserDto> findById(UUID id) {
         return userRepository.findById(id)
@@ -43,18 +44,23 @@ public class UserService {
                     }
                     return userRepository.save(user);
                 })
+                .flatMap(referenceDataCache::putUser)
                 .map(this::toDto);
     }
 
     public Mono<Void> changePassword(UUID userId, ChangePasswordRequest request) {
         return userRepository.findById(userId)
-                .flatMap(user -> {
-                    if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
-                        return Mono.error(new IllegalArgumentException("Mot de passe actuel incorrect"));
-                    }
-                    user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-                    return userRepository.save(user);
-                })
+                .flatMap(user -> passwordHashingService.matches(request.getCurrentPassword(), user.getPassword())
+                        .flatMap(matches -> {
+                            if (!matches) {
+                                return Mono.error(new IllegalArgumentException("Mot de passe actuel incorrect"));
+                            }
+                            return passwordHashingService.encode(request.getNewPassword());
+                        })
+                        .flatMap(encodedPassword -> {
+                            user.setPassword(encodedPassword);
+                            return userRepository.save(user);
+                        }))
                 .then();
     }
 
@@ -1,54 +1,124 @@
 package com.drissman.service.mapper;
 
 import com.drissman.api.dto.BookingDto;
+import com.drissman.cache.ReferenceDataCache;
+import com.drissman.cache.UserSummary;
 import com.drissman.domain.entity.Booking;
-import com.drissman.domain.repository.OfferRepository;
-import com.drissman.domain.repository.SchoolRepository;
-import com.drissman.domain.repository.UserRepository;
+import com.drissman.domain.entity.Offer;
+import com.drissman.domain.entity.School;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Component
 @RequiredArgsConstructor
 public class BookingMapper {
 
-    private final SchoolRepository schoolRepository;
-    private final OfferRepository offerRepository;
-    private final UserRepository userRepository;
+    // Number of bookings resolved together by enrichAll (at most 3 queries per window)
+    static final int BATCH_SIZE = 256;
+
+    private final ReferenceDataCache referenceDataCache;
 
     public Mono<BookingDto> enrichWithDetails(Booking booking) {
-        Mono<BookingDto.SchoolInfo> schoolInfo = schoolRepository.findById(booking.getSchoolId())
-                .map(school -> BookingDto.SchoolInfo.builder()
-                        .id(school.getId())
-                        .name(school.getName())
-                        .build());
-
-        Mono<BookingDto.OfferInfo> offerInfo = offerRepository.findById(booking.getOfferId())
-                .map(offer -> BookingDto.OfferInfo.builder()
-                        .id(offer.getId())
-                        .name(offer.getName())
-                        .price(offer.getPrice())
-                        .build());
-
-        Mono<BookingDto.UserInfo> userInfo = userRepository.findById(booking.getUserId())
-                .map(user -> BookingDto.UserInfo.builder()
-                        .id(user.getId())
-                        .name(user.getFirstName() + " " + user.getLastName())
-                        .email(user.getEmail())
-                        .build())
+        Mono<BookingDto.SchoolInfo> schoolInfo = referenceDataCache.school(booking.getSchoolId())
+                .map(this::toSchoolInfo);
+
+        Mono<BookingDto.OfferInfo> offerInfo = referenceDataCache.offer(booking.getOfferId())
+                .map(this::toOfferInfo);
+
+        Mono<BookingDto.UserInfo> userInfo = referenceDataCache.user(booking.getUserId())
+                .map(this::toUserInfo)
                 .defaultIfEmpty(BookingDto.UserInfo.builder().build());
 
         return Mono.zip(schoolInfo, offerInfo, userInfo)
-                .map(tuple -> BookingDto.builder()
-                        .id(booking.getId())
-                        .school(tuple.getT1())
-                        .offer(tuple.getT2())
-                        .user(tuple.getT3())
-                        .date(booking.getBookingDate())
-                        .time(booking.getBookingTime())
-                        .status(booking.getStatus().name())
-                        .createdAt(booking.getCreatedAt())
-                        .build());
+                .map(tuple -> toDto(booking, tuple.getT1(), tuple.getT2(), tuple.getT3()));
+    }
+
+    /**
+     * Batch variant of {@link #enrichWithDetails(Booking)} for list endpoints.
+     * Bookings are collected in windows of {@value #BATCH_SIZE}; each window
+     * resolves its distinct schools, offers and users through the reference cache
+     * (one query per table for the misses) and joins them in memory. Order is
+     * preserved and, as for the single variant, bookings whose school or offer
+     * no longer exists are skipped.
+     */
+    public Flux<BookingDto> enrichAll(Flux<Booking> bookings) {
+        return bookings.buffer(BATCH_SIZE)
+                .concatMap(this::enrichBatch);
+    }
+
+    private Flux<BookingDto> enrichBatch(List<Booking> batch) {
+        Mono<Map<UUID, School>> schools = referenceDataCache.schools(distinctIds(batch, Booking::getSchoolId))
+                .collectMap(School::getId);
+        Mono<Map<UUID, Offer>> offers = referenceDataCache.offers(distinctIds(batch, Booking::getOfferId))
+                .collectMap(Offer::getId);
+        Mono<Map<UUID, UserSummary>> users = referenceDataCache.users(distinctIds(batch, Booking::getUserId))
+                .collectMap(UserSummary::getId);
+
+        return Mono.zip(schools, offers, users)
+                .flatMapMany(tuple -> Flux.fromIterable(batch)
+                        .mapNotNull(booking -> {
+                            School school = tuple.getT1().get(booking.getSchoolId());
+                            Offer offer = tuple.getT2().get(booking.getOfferId());
+                            if (school == null || offer == null) {
+                                return null;
+                            }
+                            UserSummary user = tuple.getT3().get(booking.getUserId());
+                            return toDto(booking, toSchoolInfo(school), toOfferInfo(offer),
+                                    user != null ? toUserInfo(user) : BookingDto.UserInfo.builder().build());
+                        }));
+    }
+
+    private static Set<UUID> distinctIds(List<Booking> batch, Function<Booking, UUID> idOf) {
+        return batch.stream()
+                .map(idOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private BookingDto toDto(Booking booking, BookingDto.SchoolInfo school, BookingDto.OfferInfo offer,
+            BookingDto.UserInfo user) {
+        return BookingDto.builder()
+                .id(booking.getId())
+                .school(school)
+                .offer(offer)
+                .user(user)
+                .date(booking.getBookingDate())
+                .time(booking.getBookingTime())
+                .status(booking.getStatus().name())
+                .createdAt(booking.getCreatedAt())
+                .build();
+    }
+
+    private BookingDto.SchoolInfo toSchoolInfo(School school) {
+        return BookingDto.SchoolInfo.builder()
+                .id(school.getId())
+                .name(school.getName())
+                .build();
+    }
+
+    private BookingDto.OfferInfo toOfferInfo(Offer offer) {
+        return BookingDto.OfferInfo.builder()
+                .id(offer.getId())
+                .name(offer.getName())
+                .price(offer.getPrice())
+                .build();
+    }
+
+    private BookingDto.UserInfo toUserInfo(UserSummary user) {
+        return BookingDto.UserInfo.builder()
+                .id(user.getId())
+                .name(user.getFirstName() + " " + user.getLastName())
+                .email(user.getEmail())
+                .build();
     }
 }
@@ -0,0 +1,109 @@
+package com.drissman.service.planning;
+
+import com.drissman.domain.entity.Session;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Immutable set of the time intervals occupied by one monitor or student on
+ * one day.
+ *
+ * Intervals are half-open {@code [start, end)}, sorted by start, alongside the
+ * running maximum of their ends: the last interval starting before a slot's
+ * end is found by binary search, and the widest interval up to it tells
+ * whether any of them reaches past the slot's start. Overlap checks are
+ * therefore O(log n); updates copy the arrays, which is cheap for the handful
+ * of sessions a day holds. Legacy rows that already overlap are tolerated.
+ */
+public final class DayTimetable {
+
+    public static final DayTimetable EMPTY = new DayTimetable(new Entry[0]);
+
+    private final Entry[] entries;
+    // widest[i] is the index of the entry with the latest end among entries[0..i]
+    private final int[] widest;
+
+    private DayTimetable(Entry[] sortedEntries) {
+        this.entries = sortedEntries;
+        this.widest = new int[sortedEntries.length];
+        for (int i = 0; i < sortedEntries.length; i++) {
+            widest[i] = i > 0 && !sortedEntries[widest[i - 1]].end().isBefore(sortedEntries[i].end())
+                    ? widest[i - 1]
+                    : i;
+        }
+    }
+
+    /**
+     * Timetable of the given sessions; cancelled ones do not occupy their slot.
+     */
+    public static DayTimetable of(Collection<Session> sessions) {
+        Entry[] entries = sessions.stream()
+                .filter(SessionIntervalIndex::occupiesSlot)
+                .map(session -> new Entry(session.getId(), session.getStartTime(), session.getEndTime()))
+                .sorted(Entry.ORDER)
+                .toArray(Entry[]::new);
+        return new DayTimetable(entries);
+    }
+
+    /**
+     * Id of a session overlapping {@code [start, end)}, or {@code null} if the slot is free.
+     */
+    public UUID findOverlap(LocalTime start, LocalTime end) {
+        int candidate = lastStartingBefore(end);
+        if (candidate < 0) {
+            return null;
+        }
+        Entry widestEntry = entries[widest[candidate]];
+        return widestEntry.end().isAfter(start) ? widestEntry.sessionId() : null;
+    }
+
+    public DayTimetable with(UUID sessionId, LocalTime start, LocalTime end) {
+        Entry[] base = without(sessionId).entries;
+        Entry added = new Entry(sessionId, start, end);
+        int position = 0;
+        while (position < base.length && Entry.ORDER.compare(base[position], added) <= 0) {
+            position++;
+        }
+        Entry[] copy = new Entry[base.length + 1];
+        System.arraycopy(base, 0, copy, 0, position);
+        copy[position] = added;
+        System.arraycopy(base, position, copy, position + 1, base.length - position);
+        return new DayTimetable(copy);
+    }
+
+    public DayTimetable without(UUID sessionId) {
+        Entry[] kept = Arrays.stream(entries)
+                .filter(entry -> !entry.sessionId().equals(sessionId))
+                .toArray(Entry[]::new);
+        return kept.length == entries.length ? this : new DayTimetable(kept);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private int lastStartingBefore(LocalTime time) {
+        int low = 0;
+        int high = entries.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle].start().isBefore(time)) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private record Entry(UUID sessionId, LocalTime start, LocalTime end) {
+
+        static final Comparator<Entry> ORDER = Comparator.comparing(Entry::start).thenComparing(Entry::end);
+    }
+}
@@ -0,0 +1,141 @@
+package com.drissman.service.planning;
+
+import com.drissman.domain.entity.Session;
+import com.drissman.domain.repository.SessionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Day timetables used to reject overlapping sessions before they are written.
+ *
+ * Monitor timetables are loaded from the database on first use and then
+ * updated in place as sessions are created, cancelled or deleted on this
+ * instance. Writes made by other instances are only seen after
+ * {@code planning.timetable.ttl}, so the cache is an accelerator, not the
+ * source of truth:
+ * <ul>
+ * <li>a conflict found in a cached timetable is re-checked against a fresh
+ * load before the request is rejected;</li>
+ * <li>a conflict missed because of a stale timetable is caught by the
+ * {@value #MONITOR_OVERLAP_CONSTRAINT} exclusion constraint.</li>
+ * </ul>
+ * No constraint can back student timetables (the student is on the
+ * enrollment, not the session), so they are never cached: every check reads
+ * the student's day from the database.
+ */
+@Component
+@Slf4j
+public class SessionIntervalIndex {
+
+    public static final String MONITOR_OVERLAP_CONSTRAINT = "sessions_monitor_no_overlap";
+
+    private final SessionRepository sessionRepository;
+    private final Cache<Key, DayTimetable> monitorTimetables;
+
+    public SessionIntervalIndex(SessionRepository sessionRepository, Environment environment) {
+        this.sessionRepository = sessionRepository;
+        this.monitorTimetables = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("planning.timetable.max-size", Long.class, 50_000L))
+                .expireAfterWrite(environment.getProperty("planning.timetable.ttl", Duration.class,
+                        Duration.ofMinutes(10)))
+                .build();
+    }
+
+    /**
+     * Whether a session in this status blocks its slot.
+     */
+    public static boolean occupiesSlot(Session session) {
+        return session.getStatus() != Session.SessionStatus.CANCELLED
+                && session.getStartTime() != null && session.getEndTime() != null;
+    }
+
+    /**
+     * Completes empty if neither the monitor (optional) nor the student has a
+     * session overlapping {@code [start, end)} on {@code date}; errors with a
+     * conflict otherwise.
+     */
+    public Mono<Void> checkAvailable(UUID monitorId, UUID studentId, LocalDate date, LocalTime start,
+            LocalTime end) {
+        Mono<Void> monitor = monitorId == null ? Mono.empty() : checkMonitor(new Key(monitorId, date), start, end);
+        Mono<Void> student = sessionRepository.findByStudentIdAndDate(studentId, date)
+                .collectList()
+                .map(DayTimetable::of)
+                .flatMap(timetable -> reject(timetable, start, end, "student " + studentId + " " + date,
+                        "L'élève a déjà une séance sur ce créneau"));
+        return monitor.then(student);
+    }
+
+    /**
+     * Adds a saved session to the cached timetable of its monitor.
+     */
+    public void record(Session session) {
+        if (!occupiesSlot(session)) {
+            forget(session);
+            return;
+        }
+        if (session.getMonitorId() != null) {
+            monitorTimetables.asMap().computeIfPresent(new Key(session.getMonitorId(), session.getDate()),
+                    (k, timetable) -> timetable.with(session.getId(), session.getStartTime(), session.getEndTime()));
+        }
+    }
+
+    /**
+     * Removes a cancelled or deleted session from the cached timetable of its monitor.
+     */
+    public void forget(Session session) {
+        if (session.getMonitorId() != null) {
+            monitorTimetables.asMap().computeIfPresent(new Key(session.getMonitorId(), session.getDate()),
+                    (k, timetable) -> timetable.without(session.getId()));
+        }
+    }
+
+    /**
+     * Drops the monitor's cached day, e.g. after the database rejected a write the index let through.
+     */
+    public void invalidateMonitor(UUID monitorId, LocalDate date) {
+        if (monitorId != null) {
+            monitorTimetables.invalidate(new Key(monitorId, date));
+        }
+    }
+
+    private Mono<Void> checkMonitor(Key key, LocalTime start, LocalTime end) {
+        DayTimetable cached = monitorTimetables.getIfPresent(key);
+        Mono<DayTimetable> timetable = cached != null ? Mono.just(cached) : load(key);
+        return timetable
+                .flatMap(current -> current.findOverlap(start, end) == null || cached == null
+                        ? Mono.just(current)
+                        // The cached copy may predate a cancellation made elsewhere
+                        : load(key))
+                .flatMap(current -> reject(current, start, end, "monitor " + key.monitorId() + " " + key.date(),
+                        "Le moniteur a déjà une séance sur ce créneau"));
+    }
+
+    private static Mono<Void> reject(DayTimetable timetable, LocalTime start, LocalTime end, String day,
+            String conflictMessage) {
+        UUID conflicting = timetable.findOverlap(start, end);
+        if (conflicting != null) {
+            log.debug("Slot {}-{} of {} overlaps session {}", start, end, day, conflicting);
+            return Mono.error(new RuntimeException(conflictMessage));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<DayTimetable> load(Key key) {
+        return sessionRepository.findByMonitorIdAndDate(key.monitorId(), key.date())
+                .collectList()
+                .map(DayTimetable::of)
+                .doOnNext(timetable -> monitorTimetables.put(key, timetable));
+    }
+
+    private record Key(UUID monitorId, LocalDate date) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.drissman.service.planning;
+
+import com.drissman.domain.entity.Availability;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bookable-slot grid of one school.
+ *
+ * The weekly template is expanded once from the school's availabilities:
+ * every availability window is cut into {@link #SLOT_LENGTH} slots whose
+ * capacity is {@code maxBookings}, capped by the number of active monitors
+ * when the school manages monitors. Per-date usage (bookings and sessions
+ * holding a slot) is filled lazily the first time a date is queried and then
+ * kept current by {@link #adjust}. A template change replaces the whole grid.
+ */
+@Slf4j
+public final class SlotGrid {
+
+    public static final Duration SLOT_LENGTH = Duration.ofHours(1);
+
+    private final Map<DayOfWeek, NavigableMap<LocalTime, Integer>> template;
+    private final ConcurrentMap<LocalDate, Map<LocalTime, AtomicInteger>> usage = new ConcurrentHashMap<>();
+
+    private SlotGrid(Map<DayOfWeek, NavigableMap<LocalTime, Integer>> template) {
+        this.template = template;
+    }
+
+    public static SlotGrid build(List<Availability> availabilities, long activeMonitors) {
+        Map<DayOfWeek, NavigableMap<LocalTime, Integer>> template = new EnumMap<>(DayOfWeek.class);
+        for (Availability availability : availabilities) {
+            Integer day = availability.getDayOfWeek();
+            if (day == null || day < 1 || day > 7) {
+                continue;
+            }
+            int capacity = availability.getMaxBookings() != null ? availability.getMaxBookings() : 1;
+            if (activeMonitors > 0) {
+                capacity = (int) Math.min(capacity, activeMonitors);
+            }
+            NavigableMap<LocalTime, Integer> slots = template.computeIfAbsent(DayOfWeek.of(day), d -> new TreeMap<>());
+            try {
+                LocalTime end = LocalTime.parse(availability.getEndTime());
+                for (LocalTime start = LocalTime.parse(availability.getStartTime());
+                        !start.plus(SLOT_LENGTH).isAfter(end) && start.plus(SLOT_LENGTH).isAfter(start);
+                        start = start.plus(SLOT_LENGTH)) {
+                    // Overlapping windows add up their capacity
+                    slots.merge(start, capacity, Integer::sum);
+                }
+            } catch (DateTimeParseException | NullPointerException e) {
+                log.warn("Ignoring availability {} with invalid hours {}-{}", availability.getId(),
+                        availability.getStartTime(), availability.getEndTime());
+            }
+        }
+        template.replaceAll((day, slots) -> Collections.unmodifiableNavigableMap(slots));
+        return new SlotGrid(template);
+    }
+
+    /**
+     * Whether the school publishes no availability at all.
+     */
+    public boolean isEmpty() {
+        return template.isEmpty();
+    }
+
+    /**
+     * Slot starts and capacities offered on that date.
+     */
+    public NavigableMap<LocalTime, Integer> slotsOn(LocalDate date) {
+        return template.getOrDefault(date.getDayOfWeek(), Collections.emptyNavigableMap());
+    }
+
+    /**
+     * Start of the slot containing {@code time} on that date, or {@code null} outside opening hours.
+     */
+    public LocalTime slotContaining(LocalDate date, LocalTime time) {
+        LocalTime start = slotsOn(date).floorKey(time);
+        return start != null && start.plus(SLOT_LENGTH).isAfter(time) ? start : null;
+    }
+
+    public boolean isLoaded(LocalDate date) {
+        return usage.containsKey(date);
+    }
+
+    /**
+     * Publishes the usage of a date computed from the database; ignored if the
+     * date was loaded concurrently.
+     */
+    public void load(LocalDate date, Map<LocalTime, Integer> used) {
+        Map<LocalTime, AtomicInteger> counters = new ConcurrentHashMap<>();
+        slotsOn(date).keySet().forEach(start -> counters.put(start, new AtomicInteger(used.getOrDefault(start, 0))));
+        usage.putIfAbsent(date, counters);
+    }
+
+    /**
+     * Adds {@code delta} to every slot overlapping {@code [start, end)} on a loaded date.
+     */
+    public void adjust(LocalDate date, LocalTime start, LocalTime end, int delta) {
+        Map<LocalTime, AtomicInteger> counters = usage.get(date);
+        if (counters == null) {
+            return;
+        }
+        for (LocalTime slot : overlapping(date, start, end)) {
+            AtomicInteger counter = counters.get(slot);
+            if (counter != null) {
+                counter.addAndGet(delta);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the slot holding a booking made for {@code time} on a loaded date.
+     */
+    public void adjustBooking(LocalDate date, String time, int delta) {
+        LocalTime start = parseTime(time);
+        LocalTime slot = start != null ? slotContaining(date, start) : null;
+        if (slot != null) {
+            adjust(date, slot, slot.plus(SLOT_LENGTH), delta);
+        }
+    }
+
+    /**
+     * Booking times are stored as "HH:mm" strings; returns {@code null} if unparseable.
+     */
+    public static LocalTime parseTime(String time) {
+        try {
+            return time != null ? LocalTime.parse(time) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Slot starts on that date overlapping {@code [start, end)}.
+     */
+    public List<LocalTime> overlapping(LocalDate date, LocalTime start, LocalTime end) {
+        NavigableMap<LocalTime, Integer> slots = slotsOn(date);
+        LocalTime first = slots.floorKey(start);
+        NavigableMap<LocalTime, Integer> candidates = first != null ? slots.tailMap(first, true) : slots;
+        return candidates.keySet().stream()
+                .takeWhile(slot -> slot.isBefore(end))
+                .filter(slot -> slot.plus(SLOT_LENGTH).isAfter(start))
+                .toList();
+    }
+
+    /**
+     * Remaining capacity of a slot on a loaded date.
+     */
+    public int remaining(LocalDate date, LocalTime slot) {
+        Integer capacity = slotsOn(date).get(slot);
+        Map<LocalTime, AtomicInteger> counters = usage.get(date);
+        if (capacity == null || counters == null) {
+            return 0;
+        }
+        AtomicInteger used = counters.get(slot);
+        return Math.max(0, capacity - (used != null ? used.get() : 0));
+    }
+}
@@ -0,0 +1,140 @@
+package com.drissman.service.query;
+
+import com.drissman.api.dto.BookingDto;
+import com.drissman.api.dto.EnrollmentDto;
+import com.drissman.api.dto.InvoiceDto;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Streaming read models for the partner exports (NDJSON / SSE).
+ *
+ * Each list is one join that yields fully populated DTOs, so rows can be
+ * written as soon as they are decoded. The statements run with a fetch size:
+ * the driver reads the result through a portal {@value #FETCH_SIZE} rows at a
+ * time as the subscriber requests them, instead of materialising the whole
+ * result set.
+ */
+@Component
+@RequiredArgsConstructor
+public class PartnerExportQuery {
+
+    static final int FETCH_SIZE = 200;
+
+    // Same visibility rules as BookingMapper: no school or offer, no row; a missing user leaves it blank
+    private static final String BOOKINGS_SQL = """
+            SELECT b.id, b.booking_date, b.booking_time, b.status, b.created_at,
+                   s.id AS school_id, s.name AS school_name,
+                   o.id AS offer_id, o.name AS offer_name, o.price AS offer_price,
+                   u.id AS user_id, u.first_name, u.last_name, u.email
+            FROM bookings b
+            JOIN schools s ON s.id = b.school_id
+            JOIN offers o ON o.id = b.offer_id
+            LEFT JOIN users u ON u.id = b.user_id
+            WHERE b.school_id = :schoolId
+            ORDER BY b.created_at DESC, b.id DESC
+            """;
+
+    private static final String ENROLLMENTS_SQL = """
+            SELECT e.id, e.user_id, e.school_id, e.offer_id, e.hours_purchased, e.hours_consumed, e.status,
+                   u.first_name, u.last_name, o.name AS offer_name
+            FROM enrollments e
+            JOIN users u ON u.id = e.user_id
+            JOIN offers o ON o.id = e.offer_id
+            WHERE e.school_id = :schoolId
+            ORDER BY e.created_at DESC, e.id DESC
+            """;
+
+    private static final String INVOICES_SQL = """
+            SELECT i.id, i.booking_id, i.amount, i.status, i.payment_method, i.payment_reference,
+                   i.created_at, i.paid_at, s.name AS school_name, o.name AS offer_name
+            FROM invoices i
+            JOIN bookings b ON b.id = i.booking_id
+            JOIN schools s ON s.id = b.school_id
+            JOIN offers o ON o.id = b.offer_id
+            WHERE b.school_id = :schoolId
+            ORDER BY i.created_at DESC, i.id DESC
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<BookingDto> streamBookings(UUID schoolId) {
+        return stream(BOOKINGS_SQL, schoolId)
+                .map((row, metadata) -> toBooking(row))
+                .all();
+    }
+
+    public Flux<EnrollmentDto> streamEnrollments(UUID schoolId) {
+        return stream(ENROLLMENTS_SQL, schoolId)
+                .map((row, metadata) -> EnrollmentDto.builder()
+                        .id(row.get("id", UUID.class))
+                        .userId(row.get("user_id", UUID.class))
+                        .schoolId(row.get("school_id", UUID.class))
+                        .offerId(row.get("offer_id", UUID.class))
+                        .userName(row.get("first_name", String.class) + " " + row.get("last_name", String.class))
+                        .offerName(row.get("offer_name", String.class))
+                        .hoursPurchased(row.get("hours_purchased", Integer.class))
+                        .hoursConsumed(row.get("hours_consumed", Integer.class))
+                        .status(row.get("status", String.class))
+                        .build())
+                .all();
+    }
+
+    public Flux<InvoiceDto> streamInvoices(UUID schoolId) {
+        return stream(INVOICES_SQL, schoolId)
+                .map((row, metadata) -> InvoiceDto.builder()
+                        .id(row.get("id", UUID.class))
+                        .bookingId(row.get("booking_id", UUID.class))
+                        .booking(InvoiceDto.BookingInfo.builder()
+                                .schoolName(row.get("school_name", String.class))
+                                .offerName(row.get("offer_name", String.class))
+                                .build())
+                        .amount(row.get("amount", Integer.class))
+                        .status(row.get("status", String.class))
+                        .paymentMethod(row.get("payment_method", String.class))
+                        .paymentReference(row.get("payment_reference", String.class))
+                        .createdAt(row.get("created_at", LocalDateTime.class))
+                        .paidAt(row.get("paid_at", LocalDateTime.class))
+                        .build())
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec stream(String sql, UUID schoolId) {
+        return databaseClient.sql(sql)
+                .bind("schoolId", schoolId)
+                .filter((statement, next) -> next.execute(statement.fetchSize(FETCH_SIZE)));
+    }
+
+    private BookingDto toBooking(Row row) {
+        UUID userId = row.get("user_id", UUID.class);
+        return BookingDto.builder()
+                .id(row.get("id", UUID.class))
+                .school(BookingDto.SchoolInfo.builder()
+                        .id(row.get("school_id", UUID.class))
+                        .name(row.get("school_name", String.class))
+                        .build())
+                .offer(BookingDto.OfferInfo.builder()
+                        .id(row.get("offer_id", UUID.class))
+                        .name(row.get("offer_name", String.class))
+                        .price(row.get("offer_price", Integer.class))
+                        .build())
+                .user(userId == null ? BookingDto.UserInfo.builder().build()
+                        : BookingDto.UserInfo.builder()
+                                .id(userId)
+                                .name(row.get("first_name", String.class) + " " + row.get("last_name", String.class))
+                                .email(row.get("email", String.class))
+                                .build())
+                .date(row.get("booking_date", LocalDate.class))
+                .time(row.get("booking_time", String.class))
+                .status(row.get("status", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.drissman.service.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Aggregates the partner dashboard figures of a school in one statement over
+ * the {@code school_stats} daily rollup maintained by SchoolStatsService.
+ *
+ * Enrollments are the school's bookings, revenue is the sum of its PAID
+ * invoices. Growth figures compare the last {@value #PERIOD_DAYS} days with
+ * the {@value #PERIOD_DAYS} days before.
+ */
+@Component
+@RequiredArgsConstructor
+public class PartnerStatsQuery {
+
+    static final int PERIOD_DAYS = 30;
+
+    // Reads O(days) rows of the school_stats rollup instead of the booking history
+    private static final String STATS_SQL = """
+            SELECT COALESCE(SUM(bookings), 0)::bigint AS enrollments,
+                   COALESCE(SUM(bookings) FILTER (WHERE day >= :currentStart), 0)::bigint AS enrollments_current,
+                   COALESCE(SUM(bookings) FILTER (WHERE day >= :previousStart
+                                                    AND day < :currentStart), 0)::bigint AS enrollments_previous,
+                   COALESCE(SUM(confirmed_bookings) FILTER (WHERE day >= :today), 0)::bigint AS upcoming_lessons,
+                   COALESCE(SUM(revenue), 0)::bigint AS revenue,
+                   COALESCE(SUM(revenue) FILTER (WHERE day >= :currentStart), 0)::bigint AS revenue_current,
+                   COALESCE(SUM(revenue) FILTER (WHERE day >= :previousStart
+                                                  AND day < :currentStart), 0)::bigint AS revenue_previous
+            FROM school_stats
+            WHERE school_id = :schoolId
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Totals> aggregate(UUID schoolId, LocalDate today) {
+        LocalDate currentStart = today.minusDays(PERIOD_DAYS);
+        LocalDate previousStart = today.minusDays(2L * PERIOD_DAYS);
+
+        return databaseClient.sql(STATS_SQL)
+                .bind("schoolId", schoolId)
+                .bind("today", today)
+                .bind("currentStart", currentStart)
+                .bind("previousStart", previousStart)
+                .map((row, metadata) -> new Totals(
+                        row.get("enrollments", Long.class),
+                        row.get("enrollments_current", Long.class),
+                        row.get("enrollments_previous", Long.class),
+                        row.get("upcoming_lessons", Long.class),
+                        row.get("revenue", Long.class),
+                        row.get("revenue_current", Long.class),
+                        row.get("revenue_previous", Long.class)))
+                .one();
+    }
+
+    public record Totals(
+            long enrollments,
+            long enrollmentsCurrent,
+            long enrollmentsPrevious,
+            long upcomingLessons,
+            long revenue,
+            long revenueCurrent,
+            long revenuePrevious) {
+
+        public double revenueGrowth() {
+            return Math.round(growth(revenueCurrent, revenuePrevious) * 10) / 10.0;
+        }
+
+        public int enrollmentGrowth() {
+            return (int) Math.round(growth(enrollmentsCurrent, enrollmentsPrevious));
+        }
+
+        private static double growth(long current, long previous) {
+            if (previous == 0) {
+                return current > 0 ? 100.0 : 0.0;
+            }
+            return (current - previous) * 100.0 / previous;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.drissman.service.query;
+
+import com.drissman.api.dto.SchoolDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read model for the public school catalog (GET /api/schools).
+ *
+ * Schools, their minimum price and their offers are fetched in a single
+ * statement: offers are aggregated into a JSON array per school and the
+ * "hide non-demo schools without offers" rule is applied in the HAVING clause.
+ */
+@Component
+@RequiredArgsConstructor
+public class SchoolCatalogQuery {
+
+    // Fallback price displayed for demo schools that have no offers yet
+    static final int DEMO_FALLBACK_PRICE = 150000;
+
+    private static final String CATALOG_SQL = """
+            SELECT s.id, s.name, s.description, s.address, s.city, s.phone, s.email,
+                   s.rating, s.image_url,
+                   COALESCE(MIN(o.price), %d) AS min_price,
+                   COALESCE(json_agg(json_build_object(
+                           'id', o.id,
+                           'name', o.name,
+                           'description', o.description,
+                           'price', o.price,
+                           'hours', o.hours,
+                           'permitType', o.permit_type) ORDER BY o.price)
+                       FILTER (WHERE o.id IS NOT NULL), '[]')::text AS offers
+            FROM schools s
+            LEFT JOIN offers o ON o.school_id = s.id
+            %s
+            GROUP BY s.id
+            HAVING COUNT(o.id) > 0 OR s.is_demo
+            ORDER BY s.rating DESC NULLS LAST, s.name
+            """;
+
+    private static final TypeReference<List<SchoolDto.OfferDto>> OFFER_LIST = new TypeReference<>() {
+    };
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    public Flux<SchoolDto> findCatalog(String city) {
+        if (city != null && !city.isBlank()) {
+            return databaseClient.sql(CATALOG_SQL.formatted(DEMO_FALLBACK_PRICE, "WHERE s.city ILIKE :city"))
+                    .bind("city", city)
+                    .map((row, metadata) -> toDto(row))
+                    .all();
+        }
+        return databaseClient.sql(CATALOG_SQL.formatted(DEMO_FALLBACK_PRICE, ""))
+                .map((row, metadata) -> toDto(row))
+                .all();
+    }
+
+    private SchoolDto toDto(Row row) {
+        return SchoolDto.builder()
+                .id(row.get("id", UUID.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .address(row.get("address", String.class))
+                .city(row.get("city", String.class))
+                .phone(row.get("phone", String.class))
+                .email(row.get("email", String.class))
+                .rating(row.get("rating", BigDecimal.class))
+                .imageUrl(row.get("image_url", String.class))
+                .minPrice(row.get("min_price", Integer.class))
+                .offers(readOffers(row.get("offers", String.class)))
+                .build();
+    }
+
+    private List<SchoolDto.OfferDto> readOffers(String json) {
+        try {
+            return objectMapper.readValue(json, OFFER_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid offer aggregate returned by catalog query", e);
+        }
+    }
+}
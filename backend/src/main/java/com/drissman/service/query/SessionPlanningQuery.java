@@ -0,0 +1,133 @@
+package com.drissman.service.query;
+
+import com.drissman.api.dto.CursorPage;
+import com.drissman.api.dto.PageCursor;
+import com.drissman.api.dto.SessionDto;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Read model for the school planning (GET /api/sessions/school/{id}).
+ *
+ * Sessions are joined with their enrollment, student, offer and monitor in one
+ * statement and returned as fully populated {@link SessionDto}s. The optional
+ * date bounds are inclusive, so the calendar can load only the visible week.
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionPlanningQuery {
+
+    private static final String PLANNING_SQL = """
+            SELECT s.id, s.enrollment_id, s.monitor_id, s.date, s.start_time, s.end_time, s.status,
+                   s.meeting_point, s.pedagogical_notes, s.created_at,
+                   u.id AS user_id, u.first_name, u.last_name,
+                   o.id AS offer_id, o.name AS offer_name,
+                   m.id AS monitor_found, m.first_name AS monitor_first_name, m.last_name AS monitor_last_name
+            FROM sessions s
+            JOIN enrollments e ON e.id = s.enrollment_id
+            LEFT JOIN users u ON u.id = e.user_id
+            LEFT JOIN offers o ON o.id = e.offer_id
+            LEFT JOIN monitors m ON m.id = s.monitor_id
+            WHERE %s
+            ORDER BY %s
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Sessions of the school in calendar order; {@code from} and {@code to} may be null.
+     */
+    public Flux<SessionDto> findBySchool(UUID schoolId, LocalDate from, LocalDate to) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        String where = filter(schoolId, from, to, bindings);
+        return execute(PLANNING_SQL.formatted(where, "s.date, s.start_time, s.id"), bindings)
+                .map((row, metadata) -> toDto(row))
+                .all();
+    }
+
+    /**
+     * Keyset page (newest first) of the school's sessions within the optional date bounds.
+     */
+    public Mono<CursorPage<SessionDto>> findPageBySchool(UUID schoolId, LocalDate from, LocalDate to,
+            PageCursor after, int limit) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        String where = filter(schoolId, from, to, bindings) + " AND (s.created_at, s.id) < (:createdAt, :id)";
+        bindings.put("createdAt", after.createdAt());
+        bindings.put("id", after.id());
+        bindings.put("limit", limit + 1);
+
+        Flux<PlanningRow> rows = execute(
+                PLANNING_SQL.formatted(where, "s.created_at DESC, s.id DESC LIMIT :limit"), bindings)
+                .map((row, metadata) -> new PlanningRow(toDto(row), row.get("created_at", LocalDateTime.class)))
+                .all();
+        return CursorPage.of(rows, limit, row -> new PageCursor(row.createdAt(), row.dto().getId()),
+                page -> page.map(PlanningRow::dto));
+    }
+
+    private static String filter(UUID schoolId, LocalDate from, LocalDate to, Map<String, Object> bindings) {
+        List<String> conditions = new ArrayList<>();
+        conditions.add("s.school_id = :schoolId");
+        bindings.put("schoolId", schoolId);
+        if (from != null) {
+            conditions.add("s.date >= :from");
+            bindings.put("from", from);
+        }
+        if (to != null) {
+            conditions.add("s.date <= :to");
+            bindings.put("to", to);
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    private DatabaseClient.GenericExecuteSpec execute(String sql, Map<String, Object> bindings) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec;
+    }
+
+    private SessionDto toDto(Row row) {
+        SessionDto.SessionDtoBuilder dto = SessionDto.builder()
+                .id(row.get("id", UUID.class))
+                .enrollmentId(row.get("enrollment_id", UUID.class))
+                .date(row.get("date", LocalDate.class))
+                .startTime(row.get("start_time", LocalTime.class))
+                .endTime(row.get("end_time", LocalTime.class))
+                .status(row.get("status", String.class));
+
+        // Same fallback as SessionService: without its student or offer the session is shown bare
+        if (row.get("user_id", UUID.class) == null || row.get("offer_id", UUID.class) == null) {
+            return dto.build();
+        }
+
+        boolean hasMonitor = row.get("monitor_found", UUID.class) != null;
+        return dto
+                .monitorId(row.get("monitor_id", UUID.class))
+                .studentName(row.get("first_name", String.class) + " " + row.get("last_name", String.class))
+                .monitorName(hasMonitor
+                        ? row.get("monitor_first_name", String.class) + " "
+                                + row.get("monitor_last_name", String.class)
+                        : "Non assigné")
+                .offerName(row.get("offer_name", String.class))
+                .meetingPoint(row.get("meeting_point", String.class))
+                .pedagogicalNotes(row.get("pedagogical_notes", String.class))
+                .build();
+    }
+
+    private record PlanningRow(SessionDto dto, LocalDateTime createdAt) {
+    }
+}
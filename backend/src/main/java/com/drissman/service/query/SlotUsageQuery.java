@@ -0,0 +1,107 @@
+package com.drissman.service.query;
+
+import com.drissman.service.planning.SlotGrid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+/**
+ * Bookings and sessions holding a school's slots: over a date range to fill
+ * the slot grid of the dates it has not loaded yet, or for one slot when a
+ * booking is admitted.
+ *
+ * Both count the same places: a non-cancelled booking holds the slot its time
+ * falls in, a non-cancelled session holds every slot it overlaps.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotUsageQuery {
+
+    private static final String BOOKINGS_SQL = """
+            SELECT booking_date, booking_time
+            FROM bookings
+            WHERE school_id = :schoolId
+              AND booking_date BETWEEN :from AND :to
+              AND status <> 'CANCELLED'
+            """;
+
+    private static final String SESSIONS_SQL = """
+            SELECT s.date, s.start_time, s.end_time
+            FROM sessions s
+            JOIN enrollments e ON e.id = s.enrollment_id
+            WHERE e.school_id = :schoolId
+              AND s.date BETWEEN :from AND :to
+              AND s.status <> 'CANCELLED'
+            """;
+
+    // booking_time is stored as zero-padded "HH:mm" text
+    private static final String HELD_SQL = """
+            SELECT (SELECT COUNT(*)
+                    FROM bookings
+                    WHERE school_id = :schoolId
+                      AND booking_date = :day
+                      AND booking_time >= :bookingFrom AND booking_time < :bookingTo
+                      AND status <> 'CANCELLED')
+                 + (SELECT COUNT(*)
+                    FROM sessions s
+                    JOIN enrollments e ON e.id = s.enrollment_id
+                    WHERE e.school_id = :schoolId
+                      AND s.date = :day
+                      AND s.start_time < :slotEnd AND s.end_time > :slotStart
+                      AND s.status <> 'CANCELLED') AS held
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<BookedSlot> bookings(UUID schoolId, LocalDate from, LocalDate to) {
+        return databaseClient.sql(BOOKINGS_SQL)
+                .bind("schoolId", schoolId)
+                .bind("from", from)
+                .bind("to", to)
+                .map((row, metadata) -> new BookedSlot(
+                        row.get("booking_date", LocalDate.class),
+                        row.get("booking_time", String.class)))
+                .all();
+    }
+
+    public Flux<ScheduledSession> sessions(UUID schoolId, LocalDate from, LocalDate to) {
+        return databaseClient.sql(SESSIONS_SQL)
+                .bind("schoolId", schoolId)
+                .bind("from", from)
+                .bind("to", to)
+                .map((row, metadata) -> new ScheduledSession(
+                        row.get("date", LocalDate.class),
+                        row.get("start_time", LocalTime.class),
+                        row.get("end_time", LocalTime.class)))
+                .all();
+    }
+
+    /**
+     * Places of the slot starting at {@code slotStart} that are held by bookings and sessions.
+     */
+    public Mono<Integer> held(UUID schoolId, LocalDate day, LocalTime slotStart) {
+        // Grid slots never run past midnight
+        LocalTime slotEnd = slotStart.plus(SlotGrid.SLOT_LENGTH);
+        return databaseClient.sql(HELD_SQL)
+                .bind("schoolId", schoolId)
+                .bind("day", day)
+                .bind("bookingFrom", slotStart.toString())
+                .bind("bookingTo", slotEnd.toString())
+                .bind("slotStart", slotStart)
+                .bind("slotEnd", slotEnd)
+                .map((row, metadata) -> row.get("held", Long.class).intValue())
+                .one();
+    }
+
+    public record BookedSlot(LocalDate date, String time) {
+    }
+
+    public record ScheduledSession(LocalDate date, LocalTime start, LocalTime end) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.drissman.api.exception;
+
+import com.drissman.api.dto.ErrorResponse;
+import com.drissman.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(meterRegistry, Duration.ofSeconds(3));
+
+    @Test
+    void transactionWithoutConnectionIsServiceUnavailable() {
+        // What R2dbcTransactionManager throws when the pool cannot hand out a connection in time
+        CannotCreateTransactionException ex = new CannotCreateTransactionException(
+                "Could not open R2DBC Connection for transaction",
+                new DataAccessResourceFailureException("Failed to obtain R2DBC Connection",
+                        new R2dbcTimeoutException("acquire timeout")));
+
+        ResponseEntity<ErrorResponse> response = handler.handleTransactionUnavailable(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(meterRegistry.counter("drissman.db.unavailable", "cause", "pool_exhausted").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void transactionFailingForAnotherReasonIsAServerError() {
+        CannotCreateTransactionException ex = new CannotCreateTransactionException(
+                "Could not open R2DBC Connection for transaction", new IllegalStateException("misconfigured"));
+
+        assertThat(handler.handleTransactionUnavailable(ex).getStatusCode())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void saturatedHashingIsTooManyRequests() {
+        ResponseEntity<ErrorResponse> response =
+                handler.handleHashingSaturated(new PasswordHashingService.SaturatedException());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+}
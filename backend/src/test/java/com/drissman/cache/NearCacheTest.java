@@ -0,0 +1,43 @@
+package com.drissman.cache;
+
+import com.drissman.domain.entity.School;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearCacheTest {
+
+    // get/put never reach Redis
+    private final NearCache nearCache = new NearCache(null, new MockEnvironment());
+
+    @Test
+    void callersCannotAlterTheCachedEntry() {
+        School school = School.builder()
+                .id(UUID.randomUUID())
+                .name("Auto-École du Lac")
+                .rating(new BigDecimal("4.5"))
+                .build();
+        nearCache.put(CacheRegion.SCHOOLS, school.getId(), school);
+
+        school.setName("Changed after put");
+        School first = nearCache.get(CacheRegion.SCHOOLS, school.getId(), School.class);
+        first.setName("Changed after get");
+        School second = nearCache.get(CacheRegion.SCHOOLS, school.getId(), School.class);
+
+        assertThat(second.getName()).isEqualTo("Auto-École du Lac");
+        assertThat(second.getRating()).isEqualByComparingTo("4.5");
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void wrongTypeIsAMiss() {
+        UUID id = UUID.randomUUID();
+        nearCache.put(CacheRegion.SCHOOLS, id, School.builder().id(id).build());
+
+        assertThat(nearCache.get(CacheRegion.SCHOOLS, id, UserSummary.class)).isNull();
+    }
+}
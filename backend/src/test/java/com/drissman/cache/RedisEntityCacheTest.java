@@ -0,0 +1,216 @@
+package com.drissman.cache;
+
+import com.drissman.domain.entity.School;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.drissman.support.InProcessRedis;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RedisEntityCacheTest {
+
+    private static InProcessRedis server;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final List<NearCache> nearCaches = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ReactiveStringRedisTemplate redis;
+    private CacheStats stats;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        server = InProcessRedis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        server.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis = template(server.host(), server.port());
+        redis.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        stats = new CacheStats();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nearCaches.forEach(NearCache::unsubscribe);
+        connectionFactories.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    @Test
+    void missLoadsOnceThenHitsNearTierThenRedis() {
+        RedisEntityCache cache = cache(redis);
+        School school = school("Auto-École du Centre");
+
+        StepVerifier.create(cache.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)))
+                .expectNext(school)
+                .verifyComplete();
+        assertThat(loads).hasValue(1);
+        assertThat(stats.misses(CacheRegion.SCHOOLS)).isEqualTo(1);
+
+        StepVerifier.create(cache.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)))
+                .expectNext(school)
+                .verifyComplete();
+        assertThat(stats.nearHits(CacheRegion.SCHOOLS)).isEqualTo(1);
+
+        // A second instance has an empty near tier: answered by Redis
+        RedisEntityCache other = cache(redis);
+        StepVerifier.create(other.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)))
+                .expectNext(school)
+                .verifyComplete();
+        assertThat(stats.hits(CacheRegion.SCHOOLS)).isEqualTo(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void getAllLoadsOnlyTheMisses() {
+        RedisEntityCache cache = cache(redis);
+        School cached = school("Cached");
+        School missing = school("Missing");
+        cache.get(CacheRegion.SCHOOLS, cached.getId(), School.class, () -> load(cached)).block();
+
+        List<School> schools = cache.getAll(CacheRegion.SCHOOLS, List.of(cached.getId(), missing.getId()),
+                School.class, School::getId, ids -> {
+                    assertThat(ids).containsExactly(missing.getId());
+                    return load(missing).flux();
+                }).collectList().block();
+
+        assertThat(schools).containsExactlyInAnyOrder(cached, missing);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void writeReplacesTheEntryOnEveryInstance() {
+        RedisEntityCache writer = cache(redis);
+        RedisEntityCache reader = cache(redis);
+        School school = school("Ancien nom");
+        reader.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)).block();
+
+        School renamed = School.builder().id(school.getId()).name("Nouveau nom").city(school.getCity()).build();
+        awaitSubscribers(2);
+        writer.put(CacheRegion.SCHOOLS, school.getId(), renamed).block();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(
+                reader.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)).block())
+                .isEqualTo(renamed));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void aWriteDuringALoadIsNotOverwrittenByTheLoadedRow() {
+        RedisEntityCache writer = cache(redis);
+        RedisEntityCache reader = cache(redis);
+        School school = school("Ancien nom");
+        School renamed = School.builder().id(school.getId()).name("Nouveau nom").city(school.getCity()).build();
+
+        // The reader loaded the row before the rename committed and fills the cache after its write-through
+        School loaded = reader.get(CacheRegion.SCHOOLS, school.getId(), School.class,
+                () -> load(school).delayUntil(old -> writer.put(CacheRegion.SCHOOLS, school.getId(), renamed)))
+                .block();
+
+        assertThat(loaded).isEqualTo(school);
+        assertThat(reader.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)).block())
+                .isEqualTo(renamed);
+        assertThat(cache(redis).get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)).block())
+                .isEqualTo(renamed);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void evictionForcesTheNextReadToLoad() {
+        RedisEntityCache cache = cache(redis);
+        School school = school("Auto-École Évincée");
+        cache.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)).block();
+
+        cache.evict(CacheRegion.SCHOOLS, school.getId()).block();
+
+        StepVerifier.create(cache.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)))
+                .expectNext(school)
+                .verifyComplete();
+        assertThat(loads).hasValue(2);
+        assertThat(redis.hasKey("drissman:schools:" + school.getId()).block()).isTrue();
+    }
+
+    @Test
+    void redisDownIsAnsweredFromTheLoader() {
+        // Nothing listens on port 1
+        RedisEntityCache cache = cache(template(server.host(), 1));
+        School school = school("Sans Redis");
+
+        StepVerifier.create(cache.get(CacheRegion.SCHOOLS, school.getId(), School.class, () -> load(school)))
+                .expectNext(school)
+                .verifyComplete();
+        StepVerifier.create(cache.put(CacheRegion.SCHOOLS, school.getId(), school))
+                .expectNext(school)
+                .verifyComplete();
+        StepVerifier.create(cache.getAll(CacheRegion.SCHOOLS, List.of(UUID.randomUUID()), School.class,
+                        School::getId, ids -> load(school).flux()))
+                .expectNext(school)
+                .verifyComplete();
+
+        assertThat(stats.errors(CacheRegion.SCHOOLS)).isGreaterThanOrEqualTo(2);
+    }
+
+    // Invalidation subscriptions are established asynchronously
+    private void awaitSubscribers(long count) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> redis.convertAndSend(NearCache.INVALIDATION_CHANNEL,
+                CacheRegion.SCHOOLS.getName() + ":" + UUID.randomUUID()).block() >= count);
+    }
+
+    private RedisEntityCache cache(ReactiveStringRedisTemplate template) {
+        MockEnvironment environment = new MockEnvironment();
+        NearCache nearCache = new NearCache(template, environment);
+        nearCache.subscribe();
+        nearCaches.add(nearCache);
+        return new RedisEntityCache(template, nearCache, objectMapper, stats, environment);
+    }
+
+    private ReactiveStringRedisTemplate template(String host, int port) {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(host, port),
+                LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactories.add(connectionFactory);
+        return new ReactiveStringRedisTemplate(connectionFactory);
+    }
+
+    private Mono<School> load(School school) {
+        return Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return school;
+        });
+    }
+
+    private static School school(String name) {
+        return School.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .city("Douala")
+                .build();
+    }
+}
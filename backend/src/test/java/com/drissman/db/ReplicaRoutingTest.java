@@ -0,0 +1,174 @@
+package com.drissman.db;
+
+import com.drissman.cache.CacheRegion;
+import com.drissman.cache.CacheStats;
+import com.drissman.cache.NearCache;
+import com.drissman.cache.RedisEntityCache;
+import com.drissman.security.AuthenticatedUser;
+import com.drissman.support.InProcessRedis;
+import com.drissman.support.MigratedPostgres;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Routes requests between two Postgres servers standing for the primary and a
+ * replica. They are not replicated: a row written to the primary only is what
+ * a lagging replica looks like.
+ */
+class ReplicaRoutingTest {
+
+    private static final Duration STICKY_FOR = Duration.ofSeconds(1);
+
+    private static InProcessRedis server;
+    private static MigratedPostgres primary;
+    private static MigratedPostgres replica;
+
+    private LettuceConnectionFactory redisConnectionFactory;
+    private ReactiveStringRedisTemplate redis;
+    private DatabaseClient databaseClient;
+    private ReplicaRoutingWebFilter filter;
+
+    @BeforeAll
+    static void startServers() throws Exception {
+        server = InProcessRedis.start();
+        primary = MigratedPostgres.start();
+        replica = MigratedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopServers() throws Exception {
+        primary.close();
+        replica.close();
+        server.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisConnectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(server.host(), server.port()),
+                LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        redisConnectionFactory.afterPropertiesSet();
+        redis = new ReactiveStringRedisTemplate(redisConnectionFactory);
+        redis.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+
+        databaseClient = DatabaseClient.create(new ReplicaRoutingConnectionFactory(primary.connectionFactory(),
+                List.of(replica.connectionFactory())));
+        filter = new ReplicaRoutingWebFilter(redis, STICKY_FOR);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisConnectionFactory.destroy();
+    }
+
+    @Test
+    void readsGoToTheReplicaAndWritesToThePrimary() {
+        assertThat(servedBy(get(null))).isEqualTo(replica.port());
+        assertThat(servedBy(get(user(UUID.randomUUID())))).isEqualTo(replica.port());
+        assertThat(servedBy(post(user(UUID.randomUUID()), HttpStatus.CREATED))).isEqualTo(primary.port());
+    }
+
+    @Test
+    void aUserReadsFromThePrimaryForAWhileAfterTheirWrite() {
+        UUID writer = UUID.randomUUID();
+        servedBy(post(user(writer), HttpStatus.OK));
+
+        // No cookie comes back: the next read is recognised by the user alone
+        assertThat(servedBy(get(user(writer)))).isEqualTo(primary.port());
+        assertThat(servedBy(get(user(UUID.randomUUID())))).isEqualTo(replica.port());
+        assertThat(servedBy(get(null))).isEqualTo(replica.port());
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> servedBy(get(user(writer))) == replica.port());
+    }
+
+    @Test
+    void aFailedWriteDoesNotMakeTheUserSticky() {
+        UUID writer = UUID.randomUUID();
+        servedBy(post(user(writer), HttpStatus.BAD_REQUEST));
+
+        assertThat(servedBy(get(user(writer)))).isEqualTo(replica.port());
+    }
+
+    @Test
+    void cacheLoadsDuringAReplicaReadComeFromThePrimary() throws Exception {
+        UUID schoolId = UUID.randomUUID();
+        String insert = "INSERT INTO schools (id, name, address, city) VALUES (?, ?, '1 rue du Test', 'Douala') "
+                + "RETURNING id";
+        primary.insert(insert, schoolId, "Auto-École Renommée");
+        replica.insert(insert, schoolId, "Auto-École d'Avant");
+
+        MockEnvironment environment = new MockEnvironment();
+        NearCache nearCache = new NearCache(redis, environment);
+        RedisEntityCache cache = new RedisEntityCache(redis, nearCache,
+                JsonMapper.builder().findAndAddModules().build(), new CacheStats(), environment);
+
+        String name = cache.get(CacheRegion.SCHOOLS, schoolId, String.class,
+                        () -> databaseClient.sql("SELECT name FROM schools WHERE id = :id")
+                                .bind("id", schoolId)
+                                .map(row -> row.get(0, String.class))
+                                .one())
+                .contextWrite(context -> context.put(ReplicaRoutingConnectionFactory.READ_FROM_REPLICA, true))
+                .block();
+
+        assertThat(name).isEqualTo("Auto-École Renommée");
+    }
+
+    // Runs the request through the filter and reports the port of the server that answered its query
+    private int servedBy(ServerWebExchange exchange) {
+        AtomicInteger port = new AtomicInteger();
+        filter.filter(exchange, routed -> databaseClient.sql("SHOW port")
+                        .map(row -> row.get(0, String.class))
+                        .one()
+                        .doOnNext(value -> port.set(Integer.parseInt(value)))
+                        .then(routed.getResponse().setComplete()))
+                .block();
+        return port.get();
+    }
+
+    private static ServerWebExchange get(Principal principal) {
+        return authenticated(MockServerWebExchange.from(MockServerHttpRequest.get("/api/schools")), principal);
+    }
+
+    private static ServerWebExchange post(Principal principal, HttpStatus status) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/bookings"));
+        exchange.getResponse().setStatusCode(status);
+        return authenticated(exchange, principal);
+    }
+
+    private static ServerWebExchange authenticated(ServerWebExchange exchange, Principal principal) {
+        return principal == null ? exchange : exchange.mutate().principal(Mono.just(principal)).build();
+    }
+
+    private static Principal user(UUID userId) {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "USER", null, UUID.randomUUID().toString(),
+                Instant.now(), Instant.now().plusSeconds(900));
+        return new UsernamePasswordAuthenticationToken(user, null, List.of());
+    }
+}
@@ -0,0 +1,151 @@
+package com.drissman.domain.repository;
+
+import com.drissman.support.MigratedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the repository lookups against the migrated schema. Sequential scans
+ * are disabled so that, on these empty tables, the plan shows which index the
+ * query can use rather than what is cheapest for zero rows.
+ */
+class LookupIndexesTest {
+
+    // Non-unique btree indexes whose columns are a leading prefix of another index on the same table
+    private static final String REDUNDANT_INDEXES_SQL = """
+            SELECT a.indexrelid::regclass || ' is covered by ' || b.indexrelid::regclass
+            FROM pg_index a
+            JOIN pg_index b ON b.indrelid = a.indrelid AND b.indexrelid <> a.indexrelid
+            JOIN pg_class ai ON ai.oid = a.indexrelid
+            JOIN pg_class bi ON bi.oid = b.indexrelid
+            JOIN pg_namespace n ON n.oid = ai.relnamespace
+            WHERE n.nspname = 'public'
+              AND NOT a.indisunique
+              AND ai.relam = bi.relam
+              AND a.indexprs IS NULL AND b.indexprs IS NULL
+              AND a.indpred IS NULL AND b.indpred IS NULL
+              AND (b.indkey::text = a.indkey::text OR b.indkey::text LIKE a.indkey::text || ' %')
+            """;
+
+    private static MigratedPostgres postgres;
+
+    private final UUID id = UUID.randomUUID();
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = MigratedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    void noIndexDuplicatesTheLeadingColumnsOfAnother() throws SQLException {
+        assertThat(rows(REDUNDANT_INDEXES_SQL)).isEmpty();
+    }
+
+    @Test
+    void schoolLookupsUseTheKeysetIndexes() throws SQLException {
+        assertThat(plan("SELECT * FROM bookings WHERE school_id = '%s'".formatted(id)))
+                .contains("idx_bookings_school_keyset");
+        assertThat(plan("SELECT * FROM reviews WHERE school_id = '%s'".formatted(id)))
+                .contains("idx_reviews_school_keyset");
+        assertThat(plan("SELECT AVG(rating) FROM reviews WHERE school_id = '%s'".formatted(id)))
+                .contains("idx_reviews_school_keyset");
+        assertThat(plan("SELECT * FROM enrollments WHERE school_id = '%s'".formatted(id)))
+                .contains("idx_enrollments_school_keyset");
+    }
+
+    @Test
+    void keysetPagesAreIndexRangeScans() throws SQLException {
+        String page = "SELECT * FROM %s WHERE %s = '%s' AND (created_at, id) < (now(), '%s') "
+                + "ORDER BY created_at DESC, id DESC LIMIT 21";
+
+        assertThat(plan(page.formatted("bookings", "user_id", id, id)))
+                .contains("idx_bookings_user_keyset").doesNotContain("Sort");
+        assertThat(plan(page.formatted("bookings", "school_id", id, id)))
+                .contains("idx_bookings_school_keyset").doesNotContain("Sort");
+        assertThat(plan(page.formatted("reviews", "school_id", id, id)))
+                .contains("idx_reviews_school_keyset").doesNotContain("Sort");
+        assertThat(plan(page.formatted("enrollments", "school_id", id, id)))
+                .contains("idx_enrollments_school_keyset").doesNotContain("Sort");
+        assertThat(plan(page.formatted("invoices", "school_id", id, id)))
+                .contains("idx_invoices_school_keyset").doesNotContain("Sort");
+        assertThat(plan(page.formatted("sessions", "school_id", id, id)))
+                .contains("idx_sessions_school_keyset").doesNotContain("Sort");
+    }
+
+    @Test
+    void invoiceByBookingUsesTheUniqueConstraint() throws SQLException {
+        List<String> unique = rows("SELECT indexname FROM pg_indexes WHERE tablename = 'invoices' "
+                + "AND indexdef LIKE 'CREATE UNIQUE INDEX % (booking_id)'");
+
+        assertThat(unique).hasSize(1);
+        assertThat(plan("SELECT * FROM invoices WHERE booking_id = '%s'".formatted(id))).contains(unique.get(0));
+    }
+
+    @Test
+    void ownerLookupsUseAnIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM bookings WHERE user_id = '%s' AND school_id = '%s' AND status = 'CONFIRMED'"
+                .formatted(id, id))).contains("idx_bookings_user_school");
+        assertThat(plan("SELECT * FROM offers WHERE school_id = '%s'".formatted(id)))
+                .contains("idx_offers_school_id");
+        assertThat(plan("SELECT * FROM enrollments WHERE user_id = '%s'".formatted(id)))
+                .contains("idx_enrollments_user_id");
+        assertThat(plan("SELECT * FROM invoices WHERE user_id = '%s'".formatted(id)))
+                .contains("idx_invoices_user_id");
+        assertThat(plan("SELECT * FROM reviews WHERE user_id = '%s' AND school_id = '%s'".formatted(id, id)))
+                .contains("uq_reviews_user_school");
+        assertThat(plan("SELECT * FROM sessions WHERE enrollment_id = '%s'".formatted(id)))
+                .contains("idx_sessions_enrollment_id");
+        assertThat(plan("SELECT * FROM sessions WHERE monitor_id = '%s' AND date = CURRENT_DATE".formatted(id)))
+                .contains("idx_sessions_monitor_date");
+        assertThat(plan("SELECT * FROM monitors WHERE school_id = '%s' AND status = 'ACTIVE'".formatted(id)))
+                .contains("idx_monitors_school_status");
+    }
+
+    @Test
+    void cityFilterUsesTheTrigramIndex() throws SQLException {
+        assertThat(plan("SELECT * FROM schools WHERE city ILIKE '%douala%' ORDER BY rating DESC"))
+                .contains("idx_schools_city_trgm");
+    }
+
+    private static String plan(String query) throws SQLException {
+        try (Connection connection = postgres.dataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            List<String> lines = new ArrayList<>();
+            try (ResultSet plan = statement.executeQuery("EXPLAIN " + query)) {
+                while (plan.next()) {
+                    lines.add(plan.getString(1));
+                }
+            }
+            return String.join("\n", lines);
+        }
+    }
+
+    private static List<String> rows(String query) throws SQLException {
+        try (Connection connection = postgres.dataSource().getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery(query)) {
+            List<String> values = new ArrayList<>();
+            while (rows.next()) {
+                values.add(rows.getString(1));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.drissman.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final String REVOKED = "revoked-jti";
+
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ReactiveValueOperations<String, String> values = mock(ReactiveValueOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        when(redis.hasKey(anyString())).thenReturn(Mono.just(false));
+        when(redis.hasKey(TokenRevocationService.KEY_PREFIX + REVOKED)).thenReturn(Mono.just(true));
+        when(redis.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+        when(values.get(anyString())).thenReturn(Mono.empty());
+        when(values.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        service = new TokenRevocationService(redis, meterRegistry, new MockEnvironment());
+    }
+
+    @Test
+    void beforeTheFirstRebuildEveryTokenIsCheckedInRedis() {
+        // Revoked by another instance: this one has not heard of it
+        StepVerifier.create(service.isRevoked(token(REVOKED))).expectNext(true).verifyComplete();
+        StepVerifier.create(service.isRevoked(token("other-jti"))).expectNext(false).verifyComplete();
+
+        verify(redis).hasKey(TokenRevocationService.KEY_PREFIX + "other-jti");
+    }
+
+    @Test
+    void aBuiltFilterAnswersUnrevokedTokensWithoutRedis() {
+        when(redis.scan(any(ScanOptions.class))).thenReturn(Flux.just(TokenRevocationService.KEY_PREFIX + REVOKED));
+        service.rebuild().block();
+
+        StepVerifier.create(service.isRevoked(token("other-jti"))).expectNext(false).verifyComplete();
+        StepVerifier.create(service.isRevoked(token(REVOKED))).expectNext(true).verifyComplete();
+
+        verify(redis, never()).hasKey(TokenRevocationService.KEY_PREFIX + "other-jti");
+    }
+
+    @Test
+    void aFailedRebuildFallsBackToRedis() {
+        when(redis.scan(any(ScanOptions.class)))
+                .thenReturn(Flux.empty())
+                .thenReturn(Flux.error(new IllegalStateException("Redis unavailable")));
+        service.rebuild().block();
+        service.rebuild().block();
+
+        StepVerifier.create(service.isRevoked(token("other-jti"))).expectNext(false).verifyComplete();
+
+        verify(redis).hasKey(TokenRevocationService.KEY_PREFIX + "other-jti");
+    }
+
+    @Test
+    void rebuildsRunOneAfterTheOtherAndKeepRevocationsMadeMeanwhile() {
+        TestPublisher<String> firstScan = TestPublisher.create();
+        TestPublisher<String> secondScan = TestPublisher.create();
+        when(redis.scan(any(ScanOptions.class))).thenReturn(firstScan.flux(), secondScan.flux());
+
+        service.rebuild().subscribe();
+        service.rebuild().subscribe();
+        verify(redis, times(1)).scan(any(ScanOptions.class));
+
+        // Made after the first scan passed its key: only the revocation message can bring it in
+        service.revoke("during-jti", Instant.now().plusSeconds(600)).block();
+        when(redis.hasKey(TokenRevocationService.KEY_PREFIX + "during-jti")).thenReturn(Mono.just(true));
+        firstScan.complete();
+
+        StepVerifier.create(service.isRevoked(token("during-jti"))).expectNext(true).verifyComplete();
+        StepVerifier.create(service.isRevoked(token("other-jti"))).expectNext(false).verifyComplete();
+        verify(redis, never()).hasKey(TokenRevocationService.KEY_PREFIX + "other-jti");
+
+        // The queued request runs only now
+        verify(redis, times(2)).scan(any(ScanOptions.class));
+        secondScan.next(TokenRevocationService.KEY_PREFIX + "during-jti").complete();
+        StepVerifier.create(service.isRevoked(token("during-jti"))).expectNext(true).verifyComplete();
+    }
+
+    @Test
+    void aUserWideRevocationRefusesTheTokensIssuedUpToItsSecond() {
+        when(redis.scan(any(ScanOptions.class))).thenReturn(Flux.empty());
+        service.rebuild().block();
+        UUID userId = UUID.randomUUID();
+        String key = TokenRevocationService.KEY_PREFIX + TokenRevocationService.USER_ENTRY + userId;
+        ArgumentCaptor<String> issuedUpTo = ArgumentCaptor.forClass(String.class);
+
+        service.revokeUser(userId).block();
+
+        verify(values).set(eq(key), issuedUpTo.capture(), any(Duration.class));
+        long cutOff = Long.parseLong(issuedUpTo.getValue());
+        // Done once the second is over: whatever is issued next is told apart by its iat
+        assertThat(Instant.now().getEpochSecond()).isGreaterThan(cutOff);
+        when(values.get(key)).thenReturn(Mono.just(issuedUpTo.getValue()));
+
+        StepVerifier.create(service.isRevoked(token(userId, "old-jti", Instant.ofEpochSecond(cutOff - 60))))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(service.isRevoked(token(userId, "same-second-jti", Instant.ofEpochSecond(cutOff))))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(service.isRevoked(token(userId, "new-jti", Instant.ofEpochSecond(cutOff + 1))))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void aRedisOutageLetsTokensThroughAndIsCounted() {
+        service.revoke(REVOKED, Instant.now().plusSeconds(600)).block();
+        when(redis.hasKey(anyString())).thenReturn(Mono.error(new IllegalStateException("Redis unavailable")));
+
+        StepVerifier.create(service.isRevoked(token("other-jti"))).expectNext(false).verifyComplete();
+        // Known locally: still refused
+        StepVerifier.create(service.isRevoked(token(REVOKED))).expectNext(true).verifyComplete();
+
+        assertThat(meterRegistry.get("drissman.auth.revocation.unchecked").tag("outcome", "accepted").counter()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("drissman.auth.revocation.unchecked").tag("outcome", "rejected").counter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void failClosedRefusesTokensWhileRedisIsDown() {
+        service = new TokenRevocationService(redis, meterRegistry,
+                new MockEnvironment().withProperty("auth.revocation.fail-closed", "true"));
+        when(redis.hasKey(anyString())).thenReturn(Mono.error(new IllegalStateException("Redis unavailable")));
+
+        StepVerifier.create(service.isRevoked(token("other-jti"))).expectNext(true).verifyComplete();
+    }
+
+    private static AuthenticatedUser token(String tokenId) {
+        return token(UUID.randomUUID(), tokenId, Instant.now());
+    }
+
+    private static AuthenticatedUser token(UUID userId, String tokenId, Instant issuedAt) {
+        return new AuthenticatedUser(userId, "STUDENT", null, tokenId, issuedAt, issuedAt.plusSeconds(900));
+    }
+}
@@ -0,0 +1,101 @@
+package com.drissman.service;
+
+import com.drissman.api.dto.AuthResponse;
+import com.drissman.domain.entity.User;
+import com.drissman.domain.repository.SchoolRepository;
+import com.drissman.domain.repository.UserRepository;
+import com.drissman.security.AuthenticatedUser;
+import com.drissman.security.JwtTokenProvider;
+import com.drissman.security.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID schoolId = UUID.randomUUID();
+    private final Instant expiresAt = Instant.now().plusSeconds(600);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(
+                "drissman-test-secret-key-of-at-least-256-bits-for-hmac", 900_000L, 0);
+        authService = new AuthService(userRepository, mock(SchoolRepository.class),
+                mock(PasswordHashingService.class), jwtTokenProvider, tokenRevocationService, refreshTokenService);
+        when(tokenRevocationService.revoke(any(), any())).thenReturn(Mono.empty());
+        when(tokenRevocationService.revokeUser(any())).thenReturn(Mono.empty());
+        when(refreshTokenService.revokeAll(any())).thenReturn(Mono.empty());
+        when(refreshTokenService.issue(any())).thenReturn(Mono.just("next-refresh-token"));
+    }
+
+    @Test
+    void reissueRevokesThePresentedToken() {
+        when(userRepository.findById(userId)).thenReturn(Mono.just(admin(schoolId)));
+
+        StepVerifier.create(authService.reissue(presented(schoolId)))
+                .assertNext(response -> assertThat(response.getRefreshToken()).isNull())
+                .verifyComplete();
+
+        verify(tokenRevocationService).revoke("presented-jti", expiresAt);
+        verify(tokenRevocationService, never()).revokeUser(any());
+    }
+
+    @Test
+    void aChangedSchoolRevokesEverySessionOfTheUser() {
+        UUID newSchoolId = UUID.randomUUID();
+        when(userRepository.findById(userId)).thenReturn(Mono.just(admin(newSchoolId)));
+
+        AuthResponse response = authService.reissue(presented(schoolId)).block();
+
+        verify(tokenRevocationService).revokeUser(userId);
+        verify(refreshTokenService).revokeAll(userId);
+        assertThat(response.getUser().getSchoolId()).isEqualTo(newSchoolId);
+        assertThat(response.getRefreshToken()).isEqualTo("next-refresh-token");
+    }
+
+    @Test
+    void aRemovedAdminLosesEverySession() {
+        User removed = admin(null);
+        removed.setRole(User.Role.STUDENT);
+        when(userRepository.findById(userId)).thenReturn(Mono.just(removed));
+
+        StepVerifier.create(authService.reissue(presented(schoolId))).expectNextCount(1).verifyComplete();
+
+        verify(tokenRevocationService).revokeUser(userId);
+        verify(refreshTokenService).revokeAll(userId);
+    }
+
+    private AuthenticatedUser presented(UUID school) {
+        return new AuthenticatedUser(userId, User.Role.SCHOOL_ADMIN.name(), school, "presented-jti",
+                expiresAt.minusSeconds(600), expiresAt);
+    }
+
+    private User admin(UUID school) {
+        return User.builder()
+                .id(userId)
+                .email("admin@drissman.test")
+                .password("x")
+                .firstName("Admin")
+                .lastName("Test")
+                .role(User.Role.SCHOOL_ADMIN)
+                .schoolId(school)
+                .build();
+    }
+}
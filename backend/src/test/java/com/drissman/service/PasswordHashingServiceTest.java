@@ -0,0 +1,117 @@
+package com.drissman.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BCrypt only burns CPU, so BlockHound would not notice it on its own: the
+ * hashing methods are declared blocking, and only they are reported, so any
+ * hash computed on a Netty event loop fails the test.
+ */
+class PasswordHashingServiceTest {
+
+    private static final EventLoopGroup EVENT_LOOPS = new NioEventLoopGroup(1);
+    private static final Scheduler EVENT_LOOP = Schedulers.fromExecutor(EVENT_LOOPS);
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeAll
+    static void installBlockHound() {
+        BlockHound.install(builder -> builder
+                .markAsBlocking(BCrypt.class, "hashpw", "(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;")
+                .markAsBlocking(BCrypt.class, "checkpw", "(Ljava/lang/String;Ljava/lang/String;)Z")
+                .blockingMethodCallback(method -> {
+                    if (method.getClassName().endsWith("BCrypt")) {
+                        throw new BlockingOperationError(method);
+                    }
+                }));
+    }
+
+    @AfterAll
+    static void stopEventLoops() {
+        EVENT_LOOPS.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    void hashingOnTheEventLoopIsDetected() {
+        // Control: without the hashing scheduler, the event loop computes the hash and BlockHound says so
+        StepVerifier.create(Mono.fromCallable(() -> passwordEncoder.encode("secret")).subscribeOn(EVENT_LOOP))
+                .verifyError(BlockingOperationError.class);
+    }
+
+    @Test
+    void hashesRequestedFromTheEventLoopRunOffIt() {
+        passwordHashingService = service(passwordEncoder, new MockEnvironment());
+        String hash = passwordEncoder.encode("secret");
+
+        StepVerifier.create(Mono.defer(() -> passwordHashingService.encode("secret")).subscribeOn(EVENT_LOOP))
+                .assertNext(encoded -> assertThat(passwordEncoder.matches("secret", encoded)).isTrue())
+                .verifyComplete();
+        StepVerifier.create(Mono.defer(() -> passwordHashingService.matches("secret", hash)).subscribeOn(EVENT_LOOP))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void aFullQueueRefusesWithTheSaturationError() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordHashingService = service(slowEncoder, new MockEnvironment()
+                .withProperty("auth.hashing.threads", "1")
+                .withProperty("auth.hashing.queue-capacity", "0"));
+
+        Mono<String> running = passwordHashingService.encode("secret").cache();
+        running.subscribe();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        StepVerifier.create(passwordHashingService.encode("other"))
+                .verifyError(PasswordHashingService.SaturatedException.class);
+
+        release.countDown();
+        StepVerifier.create(running).expectNextCount(1).verifyComplete();
+    }
+
+    private static PasswordHashingService service(PasswordEncoder encoder, MockEnvironment environment) {
+        return new PasswordHashingService(encoder, new SimpleMeterRegistry(), environment);
+    }
+}
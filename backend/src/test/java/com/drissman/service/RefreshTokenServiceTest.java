@@ -0,0 +1,107 @@
+package com.drissman.service;
+
+import com.drissman.domain.repository.RefreshTokenRepository;
+import com.drissman.support.MigratedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshTokenServiceTest {
+
+    private static MigratedPostgres postgres;
+
+    private RefreshTokenService refreshTokenService;
+    private TransactionalOperator transactionalOperator;
+    private UUID userId;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = MigratedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        refreshTokenService = new RefreshTokenService(postgres.repository(RefreshTokenRepository.class),
+                2_592_000_000L, Duration.ofSeconds(2));
+        transactionalOperator = postgres.transactionalOperator();
+        userId = postgres.insert("INSERT INTO users (email, password, first_name, last_name) "
+                + "VALUES (?, 'x', 'Eleve', 'Test') RETURNING id", UUID.randomUUID() + "@drissman.test");
+    }
+
+    @Test
+    void aTokenIsExchangedForTheNextOfItsFamily() {
+        String first = refreshTokenService.issue(userId).block();
+
+        String second = rotate(first).block().refreshToken();
+
+        assertThat(second).isNotEqualTo(first);
+        StepVerifier.create(rotate(second)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void aRetryWithinTheGraceWindowReplacesTheLostSuccessor() {
+        String first = refreshTokenService.issue(userId).block();
+        String lost = rotate(first).block().refreshToken();
+
+        String replacement = rotate(first).block().refreshToken();
+
+        assertThat(replacement).isNotEqualTo(lost);
+        // The response that never arrived carried a token nobody can use any more
+        StepVerifier.create(rotate(lost)).verifyComplete();
+        StepVerifier.create(rotate(replacement)).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void aRetryAfterTheFamilyMovedOnRevokesTheFamily() {
+        String first = refreshTokenService.issue(userId).block();
+        String second = rotate(first).block().refreshToken();
+        String third = rotate(second).block().refreshToken();
+
+        StepVerifier.create(rotate(first)).verifyComplete();
+
+        StepVerifier.create(rotate(third)).verifyComplete();
+    }
+
+    @Test
+    void aReuseAfterTheGraceWindowRevokesTheFamily() throws InterruptedException {
+        String first = refreshTokenService.issue(userId).block();
+        String second = rotate(first).block().refreshToken();
+        Thread.sleep(2_500);
+
+        StepVerifier.create(rotate(first)).verifyComplete();
+
+        StepVerifier.create(rotate(second)).verifyComplete();
+    }
+
+    @Test
+    void aRotationThatFailsBeforeCommitLeavesTheTokenUsable() throws SQLException {
+        String first = refreshTokenService.issue(userId).block();
+
+        StepVerifier.create(transactionalOperator.transactional(refreshTokenService.rotate(first)
+                        .then(Mono.error(new IllegalStateException("crash before commit")))))
+                .verifyErrorMessage("crash before commit");
+
+        assertThat(postgres.count("SELECT COUNT(*) FROM refresh_tokens WHERE user_id = ?", userId)).isEqualTo(1);
+        StepVerifier.create(rotate(first)).expectNextCount(1).verifyComplete();
+    }
+
+    // RefreshTokenService.rotate is @Transactional in the application
+    private Mono<RefreshTokenService.Rotation> rotate(String token) {
+        return transactionalOperator.transactional(refreshTokenService.rotate(token));
+    }
+}
@@ -0,0 +1,114 @@
+package com.drissman.service;
+
+import com.drissman.domain.entity.Booking;
+import com.drissman.support.MigratedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchoolStatsServiceTest {
+
+    private static MigratedPostgres postgres;
+
+    private SchoolStatsService schoolStatsService;
+    private DatabaseClient databaseClient;
+    private TransactionalOperator transactionalOperator;
+    private UUID schoolId;
+    private UUID offerId;
+    private UUID userId;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = MigratedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        databaseClient = postgres.databaseClient();
+        transactionalOperator = postgres.transactionalOperator();
+        schoolStatsService = new SchoolStatsService(databaseClient, transactionalOperator);
+
+        schoolId = postgres.insert("INSERT INTO schools (name, address, city) VALUES (?, '1 rue du Test', 'Douala') "
+                + "RETURNING id", "Stats School " + UUID.randomUUID());
+        offerId = postgres.insert("INSERT INTO offers (school_id, name, price, hours) "
+                + "VALUES (?, 'Permis B', 250000, 20) RETURNING id", schoolId);
+        userId = postgres.insert("INSERT INTO users (email, password, first_name, last_name) "
+                + "VALUES (?, 'x', 'Eleve', 'Test') RETURNING id", UUID.randomUUID() + "@drissman.test");
+    }
+
+    @Test
+    void aDeltaLandsInTheBucketTheRebuildComputes() throws SQLException {
+        // Created a minute before midnight: whatever the JVM's clock says, the row decides the day
+        LocalDateTime createdAt = LocalDate.of(2026, 3, 14).atTime(23, 59);
+        UUID bookingId = postgres.insert("INSERT INTO bookings (user_id, school_id, offer_id, booking_date, "
+                + "booking_time, created_at) VALUES (?, ?, ?, ?, '09:00', ?) RETURNING id", userId, schoolId,
+                offerId, LocalDate.of(2026, 3, 20), createdAt);
+
+        transactionalOperator.transactional(schoolStatsService.recordBooking(booking(bookingId))).block();
+        long before = bookings(createdAt.toLocalDate());
+        schoolStatsService.rebuild().block();
+
+        assertThat(before).isEqualTo(1);
+        assertThat(bookings(createdAt.toLocalDate())).isEqualTo(before);
+    }
+
+    @Test
+    void aRebuildWaitsForTheDeltasInFlight() throws SQLException {
+        LocalDateTime createdAt = LocalDateTime.now().withNano(0);
+        // An existing bucket, which a rebuild blind to the booking below would reset to 1
+        postgres.insert("INSERT INTO bookings (user_id, school_id, offer_id, booking_date, booking_time, created_at) "
+                + "VALUES (?, ?, ?, ?, '09:00', ?) RETURNING id", userId, schoolId, offerId,
+                LocalDate.now().plusDays(7), createdAt);
+        schoolStatsService.rebuild().block();
+        UUID bookingId = UUID.randomUUID();
+        // The booking and its delta commit together, after the rebuild has started
+        CompletableFuture<Void> creation = transactionalOperator.transactional(databaseClient
+                        .sql("INSERT INTO bookings (id, user_id, school_id, offer_id, booking_date, booking_time, "
+                                + "created_at) VALUES (:id, :userId, :schoolId, :offerId, :date, '10:00', :createdAt)")
+                        .bind("id", bookingId)
+                        .bind("userId", userId)
+                        .bind("schoolId", schoolId)
+                        .bind("offerId", offerId)
+                        .bind("date", LocalDate.now().plusDays(7))
+                        .bind("createdAt", createdAt)
+                        .fetch()
+                        .rowsUpdated()
+                        .then(schoolStatsService.recordBooking(booking(bookingId)))
+                        .then(Mono.delay(Duration.ofSeconds(1)))
+                        .then())
+                .toFuture();
+        Mono.delay(Duration.ofMillis(300)).block();
+
+        schoolStatsService.rebuild().block();
+        creation.join();
+
+        // Neither overwritten by a rebuild that could not see the booking, nor counted twice
+        assertThat(bookings(createdAt.toLocalDate())).isEqualTo(2);
+    }
+
+    private long bookings(LocalDate day) throws SQLException {
+        return postgres.count("SELECT bookings FROM school_stats WHERE school_id = ? AND day = ?", schoolId, day);
+    }
+
+    private static Booking booking(UUID id) {
+        return Booking.builder().id(id).build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.drissman.service;
+
+import com.drissman.api.dto.CreateSessionRequest;
+import com.drissman.cache.ReferenceDataCache;
+import com.drissman.domain.entity.Session;
+import com.drissman.domain.repository.AvailabilityRepository;
+import com.drissman.domain.repository.EnrollmentRepository;
+import com.drissman.domain.repository.MonitorRepository;
+import com.drissman.domain.repository.SessionRepository;
+import com.drissman.service.planning.SessionIntervalIndex;
+import com.drissman.service.query.SessionPlanningQuery;
+import com.drissman.service.query.SlotUsageQuery;
+import com.drissman.support.MigratedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Schedules, cancels, completes and deletes the sessions of one enrollment from
+ * many concurrent requests. Whatever interleaving happens, the consumed hours
+ * must stay within [0, purchased] and match the sessions that are not
+ * cancelled: a session is never counted, or credited back, twice.
+ */
+class SessionHoursConcurrencyTest {
+
+    private static final int HOURS_PURCHASED = 5;
+    private static final int SESSIONS = 10;
+    private static final int OPERATIONS = 600;
+
+    private static MigratedPostgres postgres;
+
+    private SessionService sessionService;
+    private TransactionalOperator transactionalOperator;
+    private UUID schoolId;
+    private UUID enrollmentId;
+    private final List<UUID> sessionIds = new ArrayList<>();
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = MigratedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        SessionRepository sessionRepository = postgres.repository(SessionRepository.class);
+        // Only the response enrichment reads the caches; an empty lookup falls back to the bare session
+        ReferenceDataCache referenceDataCache = mock(ReferenceDataCache.class);
+        when(referenceDataCache.user(any())).thenReturn(Mono.empty());
+        when(referenceDataCache.offer(any())).thenReturn(Mono.empty());
+        SlotService slotService = new SlotService(postgres.repository(AvailabilityRepository.class),
+                postgres.repository(MonitorRepository.class), new SlotUsageQuery(postgres.databaseClient()),
+                new MockEnvironment());
+        sessionService = new SessionService(sessionRepository, postgres.repository(EnrollmentRepository.class),
+                referenceDataCache, mock(SessionPlanningQuery.class),
+                new SessionIntervalIndex(sessionRepository, new MockEnvironment()), slotService);
+        transactionalOperator = postgres.transactionalOperator();
+
+        schoolId = postgres.insert("INSERT INTO schools (name, address, city) "
+                + "VALUES ('Hours School', '1 rue du Test', 'Douala') RETURNING id");
+        UUID offerId = postgres.insert("INSERT INTO offers (school_id, name, price, hours) "
+                + "VALUES (?, 'Permis B', 250000, ?) RETURNING id", schoolId, HOURS_PURCHASED);
+        UUID userId = postgres.insert("INSERT INTO users (email, password, first_name, last_name) "
+                + "VALUES (?, 'x', 'Eleve', 'Test') RETURNING id", UUID.randomUUID() + "@drissman.test");
+        enrollmentId = postgres.insert("INSERT INTO enrollments (user_id, school_id, offer_id, hours_purchased) "
+                + "VALUES (?, ?, ?, ?) RETURNING id", userId, schoolId, offerId, HOURS_PURCHASED);
+    }
+
+    @Test
+    void consumedHoursNeverDriftFromTheSessionsNotCancelled() throws SQLException {
+        // Cancelled sessions hold no hours: the enrollment starts with all of them left
+        for (int i = 0; i < SESSIONS; i++) {
+            sessionIds.add(postgres.insert("INSERT INTO sessions (enrollment_id, school_id, date, start_time, end_time, "
+                    + "status) VALUES (?, ?, ?, ?, ?, 'CANCELLED') RETURNING id", enrollmentId, schoolId,
+                    LocalDate.now().plusDays(i), LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        }
+        Random random = new Random(42);
+        List<Mono<?>> operations = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            UUID sessionId = sessionIds.get(random.nextInt(SESSIONS));
+            int kind = random.nextInt(10);
+            // Deletes are rare so that most sessions stay contended until the end
+            operations.add(kind == 0 ? sessionService.delete(sessionId)
+                    : sessionService.updateStatus(sessionId, switch (kind % 3) {
+                        case 0 -> Session.SessionStatus.SCHEDULED;
+                        case 1 -> Session.SessionStatus.COMPLETED;
+                        default -> Session.SessionStatus.CANCELLED;
+                    }));
+        }
+
+        run(operations);
+
+        long consumed = consumedHours();
+        assertThat(consumed).isEqualTo(postgres.count("SELECT COUNT(*) FROM sessions WHERE enrollment_id = ? "
+                + "AND status <> 'CANCELLED'", enrollmentId));
+        assertThat(consumed).isBetween(0L, (long) HOURS_PURCHASED);
+    }
+
+    @Test
+    void concurrentSchedulingNeverGoesOverThePurchasedHours() throws SQLException {
+        List<Mono<?>> operations = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            operations.add(sessionService.create(CreateSessionRequest.builder()
+                    .enrollmentId(enrollmentId)
+                    .date(LocalDate.now().plusDays(i))
+                    .startTime(LocalTime.of(9, 0))
+                    .endTime(LocalTime.of(10, 0))
+                    .build()));
+        }
+
+        run(operations);
+
+        assertThat(consumedHours()).isEqualTo(HOURS_PURCHASED);
+        assertThat(postgres.count("SELECT COUNT(*) FROM sessions WHERE enrollment_id = ?", enrollmentId))
+                .isEqualTo(HOURS_PURCHASED);
+    }
+
+    private void run(List<Mono<?>> operations) {
+        Flux.fromIterable(operations)
+                .flatMap(operation -> transactionalOperator.transactional(operation)
+                        // Conflicts and "not enough hours" refusals are the expected outcomes of a lost race
+                        .onErrorResume(RuntimeException.class, e -> Mono.empty())
+                        .then(Mono.fromCallable(this::assertHoursInRange)), 16)
+                .blockLast();
+    }
+
+    private boolean assertHoursInRange() throws SQLException {
+        assertThat(consumedHours()).isBetween(0L, (long) HOURS_PURCHASED);
+        return true;
+    }
+
+    private long consumedHours() throws SQLException {
+        return postgres.count("SELECT hours_consumed FROM enrollments WHERE id = ?", enrollmentId);
+    }
+}
@@ -0,0 +1,160 @@
+package com.drissman.service;
+
+import com.drissman.domain.entity.Booking;
+import com.drissman.domain.repository.AvailabilityRepository;
+import com.drissman.domain.repository.BookingRepository;
+import com.drissman.domain.repository.MonitorRepository;
+import com.drissman.service.query.SlotUsageQuery;
+import com.drissman.support.MigratedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlotAdmissionServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    private static MigratedPostgres postgres;
+
+    private BookingRepository bookingRepository;
+    private SlotAdmissionService slotAdmissionService;
+    private TransactionalOperator transactionalOperator;
+    private UUID schoolId;
+    private UUID offerId;
+    private UUID userId;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = MigratedPostgres.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        bookingRepository = postgres.repository(BookingRepository.class);
+        SlotUsageQuery slotUsageQuery = new SlotUsageQuery(postgres.databaseClient());
+        SlotService slotService = new SlotService(postgres.repository(AvailabilityRepository.class),
+                postgres.repository(MonitorRepository.class), slotUsageQuery, new MockEnvironment());
+        slotAdmissionService = new SlotAdmissionService(postgres.databaseClient(), slotService, slotUsageQuery);
+        transactionalOperator = postgres.transactionalOperator();
+
+        // A fresh school per test: slots of different tests never meet
+        schoolId = postgres.insert("INSERT INTO schools (name, address, city) VALUES (?, '1 rue du Test', 'Douala') "
+                + "RETURNING id", "Slot School " + UUID.randomUUID());
+        offerId = postgres.insert("INSERT INTO offers (school_id, name, price, hours) "
+                + "VALUES (?, 'Permis B', 250000, 20) RETURNING id", schoolId);
+        userId = postgres.insert("INSERT INTO users (email, password, first_name, last_name) "
+                + "VALUES (?, 'x', 'Eleve', 'Test') RETURNING id", UUID.randomUUID() + "@drissman.test");
+    }
+
+    @Test
+    void exactlyTheCapacityIsAdmittedUnderContention() throws SQLException {
+        int capacity = 3;
+        int attempts = 24;
+        availability(capacity);
+
+        long admitted = Flux.range(0, attempts)
+                .flatMap(i -> book("09:30")
+                        .thenReturn(true)
+                        .onErrorResume(e -> {
+                            assertThat(e).hasMessage("Ce créneau est déjà complet");
+                            return Mono.just(false);
+                        }), attempts)
+                .filter(Boolean::booleanValue)
+                .count()
+                .block();
+
+        assertThat(admitted).isEqualTo(capacity);
+        assertThat(bookingsHeld()).isEqualTo(capacity);
+    }
+
+    @Test
+    void sessionsHoldPlacesLikeTheSlotGridCountsThem() throws SQLException {
+        availability(2);
+        UUID enrollmentId = postgres.insert("INSERT INTO enrollments (user_id, school_id, offer_id, hours_purchased) "
+                + "VALUES (?, ?, ?, 20) RETURNING id", userId, schoolId, offerId);
+        // 08:30-09:30 overlaps the 08:00 and 09:00 slots
+        postgres.insert("INSERT INTO sessions (enrollment_id, school_id, date, start_time, end_time) "
+                + "VALUES (?, ?, ?, ?, ?) RETURNING id", enrollmentId, schoolId, MONDAY, LocalTime.of(8, 30), LocalTime.of(9, 30));
+
+        StepVerifier.create(book("09:00")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(book("09:15")).verifyErrorMessage("Ce créneau est déjà complet");
+        StepVerifier.create(book("10:00")).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void aWriteThatFailsAfterTheAdmissionTakesNoPlace() throws SQLException {
+        availability(1);
+        Booking booking = booking("09:00");
+
+        StepVerifier.create(transactionalOperator.transactional(slotAdmissionService.acquire(booking)
+                        .then(Mono.error(new IllegalStateException("crash before the insert")))))
+                .verifyErrorMessage("crash before the insert");
+
+        StepVerifier.create(book("09:00")).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void aCancelledBookingFreesItsPlaceOnce() throws SQLException {
+        availability(1);
+        Booking held = book("09:00").block();
+
+        // Two concurrent cancellations from PENDING: only one applies
+        long applied = Flux.range(0, 2)
+                .flatMap(i -> bookingRepository.updateStatus(held.getId(), "PENDING", "CANCELLED"))
+                .filter(updated -> updated == 1)
+                .count()
+                .block();
+        assertThat(applied).isEqualTo(1);
+
+        StepVerifier.create(book("09:00")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(book("09:00")).verifyErrorMessage("Ce créneau est déjà complet");
+    }
+
+    // Same composition as BookingService.create, whose @Transactional is the operator here
+    private Mono<Booking> book(String time) {
+        Booking booking = booking(time);
+        return transactionalOperator.transactional(slotAdmissionService.acquire(booking)
+                .then(bookingRepository.save(booking)));
+    }
+
+    private Booking booking(String time) {
+        return Booking.builder()
+                .userId(userId)
+                .schoolId(schoolId)
+                .offerId(offerId)
+                .bookingDate(MONDAY)
+                .bookingTime(time)
+                .status(Booking.BookingStatus.PENDING)
+                .build();
+    }
+
+    private void availability(int maxBookings) throws SQLException {
+        postgres.insert("INSERT INTO availabilities (school_id, day_of_week, start_time, end_time, max_bookings) "
+                + "VALUES (?, 1, '08:00', '12:00', ?) RETURNING id", schoolId, maxBookings);
+    }
+
+    private long bookingsHeld() throws SQLException {
+        return postgres.count("SELECT COUNT(*) FROM bookings WHERE school_id = ? AND status <> 'CANCELLED'",
+                schoolId);
+    }
+}
@@ -0,0 +1,343 @@
+package com.drissman.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.regex.Pattern;
+
+/**
+ * Redis stand-in for the tests that need a real client talking to a real
+ * server: a RESP2 server on a loopback port of this JVM, so they run without
+ * Docker.
+ *
+ * It implements what the application uses: strings with expiry (GET, SET with
+ * EX/PX/NX/XX, MGET, DEL, EXISTS), SCAN and pub/sub on plain channels. HELLO is
+ * refused, which makes Lettuce fall back to RESP2. Every command runs under one
+ * lock, so each is atomic like on a real server.
+ */
+public final class InProcessRedis implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Entry> values = new ConcurrentHashMap<>();
+    private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Client> clients = new CopyOnWriteArraySet<>();
+    private final Object lock = new Object();
+
+    private InProcessRedis(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+    }
+
+    public static InProcessRedis start() throws IOException {
+        InProcessRedis redis = new InProcessRedis(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+        Thread acceptor = new Thread(redis::accept, "in-process-redis");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return redis;
+    }
+
+    public String host() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        clients.forEach(Client::close);
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Client client = new Client(serverSocket.accept());
+                clients.add(client);
+                Thread thread = new Thread(client::serve, "in-process-redis-client");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+    }
+
+    private record Entry(String value, long expiresAt) {
+
+        boolean expired() {
+            return expiresAt > 0 && System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private final class Client {
+
+        private final Socket socket;
+        private final Set<String> channels = ConcurrentHashMap.newKeySet();
+        private OutputStream out;
+
+        Client(Socket socket) {
+            this.socket = socket;
+        }
+
+        void serve() {
+            try (socket) {
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                out = new BufferedOutputStream(socket.getOutputStream());
+                while (true) {
+                    List<String> command = readCommand(in);
+                    synchronized (lock) {
+                        execute(command);
+                    }
+                }
+            } catch (IOException e) {
+                // Disconnected
+            } finally {
+                channels.forEach(channel -> subscribers.getOrDefault(channel, Set.of()).remove(this));
+                clients.remove(this);
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+
+        private void execute(List<String> command) throws IOException {
+            String name = command.get(0).toUpperCase(Locale.ROOT);
+            List<String> args = command.subList(1, command.size());
+            switch (name) {
+                case "PING" -> {
+                    if (channels.isEmpty()) {
+                        simple("PONG");
+                    } else {
+                        array(List.of("pong", ""));
+                    }
+                }
+                case "CLIENT", "SELECT" -> simple("OK");
+                case "GET" -> bulk(get(args.get(0)));
+                case "MGET" -> array(args.stream().map(this::get).toList());
+                case "SET" -> set(args);
+                case "DEL" -> integer(args.stream().filter(key -> remove(key) != null).count());
+                case "EXISTS" -> integer(args.stream().filter(key -> get(key) != null).count());
+                case "SCAN" -> scan(args);
+                case "FLUSHALL", "FLUSHDB" -> {
+                    values.clear();
+                    simple("OK");
+                }
+                case "PUBLISH" -> integer(publish(args.get(0), args.get(1)));
+                case "SUBSCRIBE" -> {
+                    for (String channel : args) {
+                        channels.add(channel);
+                        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(this);
+                        push("subscribe", channel, channels.size());
+                    }
+                }
+                case "UNSUBSCRIBE" -> {
+                    for (String channel : args.isEmpty() ? List.copyOf(channels) : args) {
+                        channels.remove(channel);
+                        subscribers.getOrDefault(channel, Set.of()).remove(this);
+                        push("unsubscribe", channel, channels.size());
+                    }
+                }
+                case "QUIT" -> {
+                    simple("OK");
+                    flush();
+                    close();
+                }
+                default -> error("ERR unknown command '" + command.get(0) + "'");
+            }
+            flush();
+        }
+
+        private String get(String key) {
+            Entry entry = values.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expired()) {
+                values.remove(key, entry);
+                return null;
+            }
+            return entry.value();
+        }
+
+        private String remove(String key) {
+            String value = get(key);
+            values.remove(key);
+            return value;
+        }
+
+        private void set(List<String> args) throws IOException {
+            String key = args.get(0);
+            long expiresAt = 0;
+            boolean ifAbsent = false;
+            boolean ifPresent = false;
+            for (int i = 2; i < args.size(); i++) {
+                switch (args.get(i).toUpperCase(Locale.ROOT)) {
+                    case "EX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(args.get(++i)) * 1000;
+                    case "PX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(args.get(++i));
+                    case "NX" -> ifAbsent = true;
+                    case "XX" -> ifPresent = true;
+                    default -> {
+                        error("ERR syntax error");
+                        return;
+                    }
+                }
+            }
+            boolean exists = get(key) != null;
+            if ((ifAbsent && exists) || (ifPresent && !exists)) {
+                bulk(null);
+                return;
+            }
+            values.put(key, new Entry(args.get(1), expiresAt));
+            simple("OK");
+        }
+
+        // One pass over the whole key space: the cursor returned is always 0
+        private void scan(List<String> args) throws IOException {
+            Pattern match = null;
+            for (int i = 1; i < args.size(); i++) {
+                if (args.get(i).equalsIgnoreCase("MATCH")) {
+                    match = glob(args.get(++i));
+                } else {
+                    i++;
+                }
+            }
+            List<String> keys = new ArrayList<>();
+            for (String key : List.copyOf(values.keySet())) {
+                if (get(key) != null && (match == null || match.matcher(key).matches())) {
+                    keys.add(key);
+                }
+            }
+            write("*2\r\n");
+            bulk("0");
+            array(keys);
+        }
+
+        private long publish(String channel, String message) throws IOException {
+            Set<Client> receivers = subscribers.getOrDefault(channel, Set.of());
+            for (Client receiver : receivers) {
+                receiver.push("message", channel, message);
+                receiver.flush();
+            }
+            return receivers.size();
+        }
+
+        private void push(String kind, String channel, Object last) throws IOException {
+            write("*3\r\n");
+            bulk(kind);
+            bulk(channel);
+            if (last instanceof Integer count) {
+                integer(count);
+            } else {
+                bulk((String) last);
+            }
+        }
+
+        private void simple(String value) throws IOException {
+            write("+" + value + "\r\n");
+        }
+
+        private void error(String message) throws IOException {
+            write("-" + message + "\r\n");
+        }
+
+        private void integer(long value) throws IOException {
+            write(":" + value + "\r\n");
+        }
+
+        private void bulk(String value) throws IOException {
+            if (value == null) {
+                write("$-1\r\n");
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            write("$" + bytes.length + "\r\n");
+            out.write(bytes);
+            write("\r\n");
+        }
+
+        private void array(List<String> items) throws IOException {
+            write("*" + items.size() + "\r\n");
+            for (String item : items) {
+                bulk(item);
+            }
+        }
+
+        private void write(String value) throws IOException {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (!header.startsWith("*")) {
+            // Inline command
+            return List.of(header.trim().split("\\s+"));
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<String> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException();
+            }
+            readLine(in);
+            command.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int previous = -1;
+        while (true) {
+            int next = in.read();
+            if (next < 0) {
+                throw new EOFException();
+            }
+            if (previous == '\r' && next == '\n') {
+                byte[] bytes = line.toByteArray();
+                return new String(bytes, 0, bytes.length - 1, StandardCharsets.UTF_8);
+            }
+            line.write(next);
+            previous = next;
+        }
+    }
+
+    private static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
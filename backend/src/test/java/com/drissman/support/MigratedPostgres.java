@@ -0,0 +1,131 @@
+package com.drissman.support;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Throw-away Postgres migrated with the application's Liquibase changelog, for
+ * the tests that need the real schema (constraints, indexes, conditional updates).
+ *
+ * The R2DBC side ({@link #databaseClient()}, {@link #repository(Class)},
+ * {@link #transactionalOperator()}) shares one pool, so repositories and
+ * queries take part in the transactions of the operator like they do in the
+ * application.
+ */
+public final class MigratedPostgres implements AutoCloseable {
+
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.yaml";
+
+    private final EmbeddedPostgres postgres;
+    private final ConnectionPool pool;
+
+    private MigratedPostgres(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(
+                        new PostgresqlConnectionFactory(PostgresqlConnectionConfiguration.builder()
+                                .host("localhost")
+                                .port(postgres.getPort())
+                                .database("postgres")
+                                .username("postgres")
+                                .build()))
+                .maxSize(20)
+                .build());
+    }
+
+    public static MigratedPostgres start() throws Exception {
+        EmbeddedPostgres postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database).update(new Contexts());
+            return new MigratedPostgres(postgres);
+        } catch (Exception e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    public DataSource dataSource() {
+        return postgres.getPostgresDatabase();
+    }
+
+    public int port() {
+        return postgres.getPort();
+    }
+
+    public ConnectionFactory connectionFactory() {
+        return pool;
+    }
+
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(pool);
+    }
+
+    public <T> T repository(Class<T> repositoryType) {
+        return new R2dbcRepositoryFactory(new R2dbcEntityTemplate(pool)).getRepository(repositoryType);
+    }
+
+    public TransactionalOperator transactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(pool));
+    }
+
+    /**
+     * Runs an INSERT ... RETURNING id with JDBC, for seeding.
+     */
+    public UUID insert(String sql, Object... parameters) throws SQLException {
+        try (Connection connection = dataSource().getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return rows.getObject(1, UUID.class);
+            }
+        }
+    }
+
+    /**
+     * Runs a single-value query with JDBC, for assertions.
+     */
+    public long count(String sql, Object... parameters) throws SQLException {
+        try (Connection connection = dataSource().getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return rows.getLong(1);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        pool.dispose();
+        postgres.close();
+    }
+}